@@ -0,0 +1,364 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Non-interactive mode: runs every species in a profile file with the same
+ * run parameters, saves each run through SimulationManager and writes its
+ * chart, then exits with a status code.
+ *
+ * Profile file: one species per line as
+ * {@code name,litterSize,littersPerYear,survivalRate,reproductionAge};
+ * blank lines and lines starting with # are ignored.
+ *
+ * Exit status: 0 when every run succeeded, 1 when any run failed,
+ * 2 for a bad command line or profile file.
+ */
+public class BatchRunner {
+    static final int EXIT_OK = 0;
+    static final int EXIT_RUN_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java BiologicalResearchTool --batch <profiles.csv> [options]",
+            "  --population N    initial population (default 100)",
+            "  --years N         years to simulate (default 50)",
+            "  --mode MODE       INDIVIDUAL, COHORT, MONTHLY or DETERMINISTIC (default COHORT)",
+            "  --seed N          batch seed; each species gets its own seed split from it",
+            "  --workers N       concurrent runs (default: available processors)",
+            "  --capacity K      carrying capacity; enables density dependence",
+            "  --density MODEL   logistic or beverton-holt (default logistic when --capacity is given)",
+            "  --charts TYPE     html, console or none (default html)",
+            "  --report FILE     also write one HTML report overlaying every run (log scale)",
+            "  --no-save         do not save runs");
+
+    private final Path profileFile;
+    private int initialPopulation = 100;
+    private int simulationYears = 50;
+    private SimulationMode mode = SimulationMode.COHORT;
+    private Long batchSeed;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private String charts = "html";
+    private boolean save = true;
+    private Path reportFile;
+    private long carryingCapacity;
+    private DensityDependence.Model densityModel = DensityDependence.Model.LOGISTIC;
+
+    private BatchRunner(Path profileFile) {
+        this.profileFile = profileFile;
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /** Parses the command line (without the leading --batch), runs the batch and returns the exit status. */
+    public static int run(String[] args) {
+        if (args.length > 0 && (args[0].equals("--help") || args[0].equals("-h"))) {
+            System.out.println(USAGE);
+            return EXIT_OK;
+        }
+        BatchRunner batch;
+        try {
+            batch = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        List<SpeciesProfile> profiles;
+        try {
+            profiles = readProfiles(batch.profileFile);
+        } catch (IOException e) {
+            System.err.println("Error reading profiles: " + e.getMessage());
+            return EXIT_USAGE;
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error in " + batch.profileFile + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+        if (profiles.isEmpty()) {
+            System.err.println("No species profiles in " + batch.profileFile);
+            return EXIT_USAGE;
+        }
+
+        try {
+            return batch.execute(profiles);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Batch interrupted");
+            return EXIT_RUN_FAILED;
+        }
+    }
+
+    private static BatchRunner parse(String[] args) {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("missing profile file");
+        }
+        BatchRunner batch = new BatchRunner(Path.of(args[0]));
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--no-save" -> batch.save = false;
+                case "--population" -> batch.initialPopulation = parseInt(option, value(args, ++i), 1);
+                case "--years" -> batch.simulationYears = parseInt(option, value(args, ++i), 1);
+                case "--workers" -> batch.workers = parseInt(option, value(args, ++i), 1);
+                case "--seed" -> {
+                    try {
+                        batch.batchSeed = Long.parseLong(value(args, ++i));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("--seed needs a whole number");
+                    }
+                }
+                case "--mode" -> {
+                    try {
+                        batch.mode = SimulationMode.valueOf(value(args, ++i).toUpperCase(Locale.ROOT));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("unknown mode " + args[i]);
+                    }
+                }
+                case "--capacity" -> batch.carryingCapacity = parseLong(option, value(args, ++i), 1);
+                case "--density" -> {
+                    try {
+                        batch.densityModel = DensityDependence.parseModel(value(args, ++i));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("unknown density model " + args[i]);
+                    }
+                }
+                case "--report" -> batch.reportFile = Path.of(value(args, ++i));
+                case "--charts" -> {
+                    batch.charts = value(args, ++i).toLowerCase(Locale.ROOT);
+                    if (!List.of("html", "console", "none").contains(batch.charts)) {
+                        throw new IllegalArgumentException("unknown chart type " + args[i]);
+                    }
+                }
+                default -> throw new IllegalArgumentException("unknown option " + option);
+            }
+        }
+        return batch;
+    }
+
+    private DensityDependence density() {
+        return carryingCapacity > 0 ? DensityDependence.of(densityModel, carryingCapacity) : DensityDependence.NONE;
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException(args[index - 1] + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static int parseInt(String option, String text, int min) {
+        long value = parseLong(option, text, min);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(option + " is too large");
+        }
+        return (int) value;
+    }
+
+    private static long parseLong(String option, String text, long min) {
+        try {
+            long value = Long.parseLong(text);
+            if (value >= min) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(option + " needs a whole number of at least " + min);
+    }
+
+    static List<SpeciesProfile> readProfiles(Path file) throws IOException {
+        List<SpeciesProfile> profiles = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] fields = line.split(",");
+            if (fields.length != 5) {
+                throw new IllegalArgumentException("line " + (i + 1)
+                        + ": expected name,litterSize,littersPerYear,survivalRate,reproductionAge");
+            }
+            try {
+                // The same bounds the interactive prompts enforce
+                profiles.add(new SpeciesProfile(fields[0].trim(),
+                        parseField("litter size", fields[1], 0.1, 100),
+                        parseField("litters per year", fields[2], 0.1, 50),
+                        parseField("survival rate", fields[3], 0.0, 1.0),
+                        parseField("reproduction age", fields[4], 1, 1200)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("line " + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return profiles;
+    }
+
+    private static double parseField(String field, String text, double min, double max) {
+        try {
+            double value = Double.parseDouble(text.trim());
+            if (value >= min && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(field + " must be between " + min + " and " + max);
+    }
+
+    private static int parseField(String field, String text, int min, int max) {
+        try {
+            int value = Integer.parseInt(text.trim());
+            if (value >= min && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(field + " must be a whole number between " + min + " and " + max);
+    }
+
+    private int execute(List<SpeciesProfile> profiles) throws InterruptedException {
+        long[] seeds = RandomDraws.splitSeeds(batchSeed != null ? batchSeed : System.nanoTime(), profiles.size());
+        List<String> names = saveNames(profiles);
+        Writer reportOut = null;
+        HTMLReportWriter report = null;
+        if (reportFile != null) {
+            try {
+                reportOut = Files.newBufferedWriter(reportFile);
+                report = new HTMLReportWriter(reportOut, "Batch " + profileFile.getFileName(), true);
+            } catch (IOException e) {
+                System.err.println("Error creating report: " + e.getMessage());
+                closeReport(reportOut);
+                return EXIT_RUN_FAILED;
+            }
+        }
+        SimulationManager manager = save ? new SimulationManager() : null;
+
+        System.out.printf("Running %d species with %d workers (%s, %d years, initial population %,d, %s)%n",
+                profiles.size(), workers, mode, simulationYears, initialPopulation, density());
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(workers, profiles.size()));
+        CompletionService<Integer> completed = new ExecutorCompletionService<>(executor);
+        PopulationSimulation[] simulations = new PopulationSimulation[profiles.size()];
+        RuntimeException[] errors = new RuntimeException[profiles.size()];
+        for (int i = 0; i < profiles.size(); i++) {
+            int index = i;
+            completed.submit(() -> {
+                try {
+                    PopulationSimulation simulation = new PopulationSimulation(profiles.get(index),
+                            initialPopulation, simulationYears, mode, seeds[index]);
+                    simulation.setDensityDependence(density());
+                    simulation.run();
+                    simulations[index] = simulation;
+                    // Only queues the save; the manager's writer thread does the disk work
+                    if (manager != null) {
+                        manager.saveSimulation(simulation, names.get(index));
+                    }
+                } catch (RuntimeException e) {
+                    errors[index] = e;
+                }
+                return index;
+            });
+        }
+        executor.shutdown();
+
+        // Results are reported and charted on this thread as they finish
+        int failed = 0;
+        boolean reportFailed = false;
+        for (int i = 0; i < profiles.size(); i++) {
+            int index;
+            try {
+                index = completed.take().get();
+            } catch (ExecutionException e) {
+                failed++;
+                System.err.println("Run failed: " + e.getCause());
+                continue;
+            }
+            String name = names.get(index);
+            PopulationSimulation simulation = simulations[index];
+            if (simulation == null) {
+                failed++;
+                System.err.println(name + ": run failed: " + errors[index].getMessage());
+                continue;
+            }
+            System.out.printf("%s: final population %,d, growth %.2f%%/year, seed %d%n", name,
+                    simulation.getFinalPopulation(), simulation.getAverageGrowthRate(), simulation.getSeed());
+            if (simulation.isPopulationLimitReached()) {
+                System.out.printf("%s: population ceiling reached in year %d%n", name,
+                        simulation.getLimitReachedYear());
+            }
+            switch (charts) {
+                case "html" -> HTMLChartGenerator.generate(simulation.getPopulationHistory(), name);
+                case "console" -> ConsoleChart.display(simulation.getPopulationHistory(), name);
+            }
+            // Streamed as runs finish, so the report never holds more than one history
+            if (report != null) {
+                try {
+                    report.addRun(name, simulation.getPopulationHistory());
+                } catch (IOException e) {
+                    System.err.println("Error writing report: " + e.getMessage());
+                    reportFailed = true;
+                    report = null;
+                }
+            }
+            simulations[index] = null;
+        }
+        if (report != null) {
+            try {
+                report.close();
+                System.out.println("Report saved as: " + reportFile);
+            } catch (IOException e) {
+                System.err.println("Error writing report: " + e.getMessage());
+                reportFailed = true;
+            }
+        }
+        closeReport(reportOut);
+
+        if (manager != null) {
+            manager.close(); // waits for the queued saves
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int succeeded = profiles.size() - failed;
+        System.out.printf(Locale.ROOT, "Batch complete: %d runs, %d failed, %.2f s, %.1f runs/s%n",
+                succeeded, failed, seconds, succeeded / Math.max(seconds, 1e-9));
+        return failed == 0 && !reportFailed ? EXIT_OK : EXIT_RUN_FAILED;
+    }
+
+    private static void closeReport(Writer writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing report: " + e.getMessage());
+        }
+    }
+
+    // Species listed more than once are saved as name, name_2, name_3, ... Names are compared by the
+    // file they would be saved to, so "A B" and "A_B", or "Mouse" twice and "Mouse_2", never share one
+    private static List<String> saveNames(List<SpeciesProfile> profiles) {
+        Set<String> taken = new HashSet<>();
+        List<String> names = new ArrayList<>(profiles.size());
+        for (SpeciesProfile profile : profiles) {
+            String name = profile.getName();
+            for (int count = 2; !taken.add(SimulationManager.fileStem(name)); count++) {
+                name = profile.getName() + "_" + count;
+            }
+            names.add(name);
+        }
+        return names;
+    }
+}
@@ -1,17 +1,39 @@
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import javafx.scene.chart.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class BioResearchApp extends Application {
 
+    // Chart updates are batched so the FX thread redraws at most this often
+    private static final long CHART_FLUSH_INTERVAL_NANOS = 100_000_000L;
+    // Point budget used before the chart has been laid out
+    private static final int MIN_CHART_POINTS = 400;
+
     private TextArea output;
     private LineChart<Number, Number> chart;
     private GridPane inputPanel; // Made this a field to access it in clear method
+    private Button runButton;
+    private Button cancelButton;
+    private ProgressBar progressBar;
+    private Task<PopulationSimulation> currentTask;
+    private final ResultCache resultCache = new ResultCache();
+    private final ExecutorService simulationExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "simulation-worker");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     @Override
     public void start(Stage primaryStage) {
@@ -21,17 +43,32 @@ public class BioResearchApp extends Application {
         output.setEditable(false);
         chart = createEmptyChart();
 
-        Button runButton = new Button("Run Simulation");
+        runButton = new Button("Run Simulation");
         runButton.setOnAction(e -> runSimulation(inputPanel));
         
         Button clearButton = new Button("Clear All");
         clearButton.getStyleClass().add("run-button");
         clearButton.setOnAction(e -> clearAll());
 
+        cancelButton = new Button("Cancel");
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction(e -> {
+            if (currentTask != null) {
+                currentTask.cancel();
+            }
+        });
+
+        progressBar = new ProgressBar(0);
+        progressBar.setMaxWidth(Double.MAX_VALUE);
+
         HBox buttonBox = new HBox(45, runButton, clearButton);
         buttonBox.setPadding(new Insets(10, 0, 0, 10));
 
-        VBox leftPanel = new VBox(10, inputPanel, buttonBox);
+        HBox progressBox = new HBox(10, progressBar, cancelButton);
+        HBox.setHgrow(progressBar, Priority.ALWAYS);
+        progressBox.setPadding(new Insets(0, 0, 0, 10));
+
+        VBox leftPanel = new VBox(10, inputPanel, buttonBox, progressBox);
         leftPanel.setPadding(new Insets(10));
 
         VBox centerPanel = new VBox(10, chart, output);
@@ -53,10 +90,20 @@ public class BioResearchApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        if (currentTask != null) {
+            currentTask.cancel();
+        }
+        simulationExecutor.shutdownNow();
+    }
+
     private void clearAll() {
         // Clear output and chart
         output.clear();
         chart.getData().clear();
+        progressBar.progressProperty().unbind();
+        progressBar.setProgress(0);
         
         // Clear all text fields
         inputPanel.getChildren().forEach(node -> {
@@ -80,7 +127,8 @@ public class BioResearchApp extends Application {
             {"Survival Rate:", "0.0-1.0"},
             {"Repro Age (months):", "e.g. 2"},
             {"Initial Population:", "e.g. 10"},
-            {"Years to Simulate:", "e.g. 3"}
+            {"Years to Simulate:", "e.g. 3"},
+            {"Seed:", "blank for random"}
         };
         
         // Create and add components in a loop
@@ -95,6 +143,9 @@ public class BioResearchApp extends Application {
     }
 
     private void runSimulation(GridPane inputPanel) {
+        if (currentTask != null && currentTask.isRunning()) {
+            return;
+        }
         try {
             String speciesName = ((TextField)inputPanel.getChildren().get(1)).getText();
             double avgLitterSize = Double.parseDouble(((TextField)inputPanel.getChildren().get(3)).getText());
@@ -103,29 +154,121 @@ public class BioResearchApp extends Application {
             int reproductionAge = Integer.parseInt(((TextField)inputPanel.getChildren().get(9)).getText());
             int initialPopulation = Integer.parseInt(((TextField)inputPanel.getChildren().get(11)).getText());
             int yearsToSimulate = Integer.parseInt(((TextField)inputPanel.getChildren().get(13)).getText());
+            String seedText = ((TextField)inputPanel.getChildren().get(15)).getText().trim();
 
             SpeciesProfile profile = new SpeciesProfile(speciesName, avgLitterSize, 
                     avgLittersPerYear, survivalRate, reproductionAge);
-            PopulationSimulation simulator = new PopulationSimulation(profile, 
-                    initialPopulation, yearsToSimulate);
-            simulator.run();
-            
-            displayResults(simulator);
+            if (seedText.isEmpty()) {
+                startSimulation(new PopulationSimulation(profile, initialPopulation, yearsToSimulate), false);
+                return;
+            }
+            // Seeded runs repeat exactly, so an identical earlier run can be shown straight away
+            PopulationSimulation simulator = new PopulationSimulation(profile, initialPopulation,
+                    yearsToSimulate, SimulationMode.COHORT, Long.parseLong(seedText));
+            PopulationSimulation cached = resultCache.get(simulator);
+            if (cached != null) {
+                showCached(cached);
+            } else {
+                startSimulation(simulator, true);
+            }
             
         } catch (NumberFormatException e) {
             output.setText("Error: Please enter valid numbers in all fields");
+        } catch (IllegalArgumentException e) {
+            output.setText("Error: " + e.getMessage());
         }
     }
 
+    private void showCached(PopulationSimulation simulator) {
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        chart.getData().clear();
+        chart.getData().add(series);
+        showDecimated(simulator.getPopulationHistory(), series);
+        displayResults(simulator);
+        output.appendText("(from result cache: " + resultCache + ")\n");
+        progressBar.progressProperty().unbind();
+        progressBar.setProgress(1);
+    }
+
+    // Runs the simulation on the worker thread and streams its years into the chart in batches
+    private void startSimulation(PopulationSimulation simulator, boolean cacheResult) {
+        LiveSeries live = new LiveSeries();
+        XYChart.Series<Number, Number> series = live.series;
+        chart.getData().clear();
+        chart.getData().add(series);
+        output.setText("Running simulation...");
+
+        Queue<YearSnapshot> pending = new ConcurrentLinkedQueue<>();
+        int years = simulator.getSimulationYears();
+
+        Task<PopulationSimulation> task = new Task<>() {
+            private long lastFlush;
+
+            @Override
+            protected PopulationSimulation call() {
+                simulator.addListener(snapshot -> {
+                    if (isCancelled()) {
+                        simulator.cancel();
+                        return;
+                    }
+                    pending.add(snapshot);
+                    updateProgress(snapshot.getYear(), years);
+                    long now = System.nanoTime();
+                    if (now - lastFlush >= CHART_FLUSH_INTERVAL_NANOS) {
+                        lastFlush = now;
+                        Platform.runLater(() -> appendPoints(pending, live));
+                    }
+                });
+                simulator.run();
+                if (cacheResult) {
+                    resultCache.put(simulator);
+                }
+                return simulator;
+            }
+        };
+
+        task.setOnSucceeded(e -> {
+            pending.clear();
+            showDecimated(task.getValue().getPopulationHistory(), series);
+            displayResults(task.getValue());
+            finishSimulation();
+        });
+        task.setOnCancelled(e -> {
+            appendPoints(pending, live);
+            showDecimated(live.history, series);
+            output.setText("Simulation cancelled after " + Math.max(0, live.lastYear) + " years");
+            finishSimulation();
+        });
+        task.setOnFailed(e -> {
+            output.setText("Error: " + task.getException().getMessage());
+            finishSimulation();
+        });
+
+        currentTask = task;
+        progressBar.progressProperty().bind(task.progressProperty());
+        runButton.setDisable(true);
+        cancelButton.setDisable(false);
+        simulationExecutor.submit(task);
+    }
+
+    private void finishSimulation() {
+        runButton.setDisable(false);
+        cancelButton.setDisable(true);
+    }
+
     private void displayResults(PopulationSimulation simulator) {
         StringBuilder results = new StringBuilder();
         results.append("=== Simulation Results ===\n");
         results.append("Species: ").append(simulator.getSpeciesProfile().getName()).append("\n");
         results.append("Final Population: ").append(simulator.getFinalPopulation()).append("\n");
         results.append("Growth Rate: ").append(String.format("%.2f%%", simulator.getAverageGrowthRate())).append("\n");
+        results.append("Seed: ").append(simulator.getSeed()).append("\n");
+        if (simulator.isPopulationLimitReached()) {
+            results.append("Warning: population ceiling reached in year ")
+                   .append(simulator.getLimitReachedYear()).append("; later years are capped\n");
+        }
         
         output.setText(results.toString());
-        updateChart(simulator.getPopulationHistory());
     }
 
     private LineChart<Number, Number> createEmptyChart() {
@@ -141,13 +284,48 @@ public class BioResearchApp extends Application {
         return chart;
     }
 
-    private void updateChart(List<Integer> populationData) {
-        XYChart.Series<Number, Number> series = new XYChart.Series<>();
-        for (int year = 0; year < populationData.size(); year++) {
-            series.getData().add(new XYChart.Data<>(year, populationData.get(year)));
+    // Years received so far, owned by the FX thread; the series shows them decimated
+    private static final class LiveSeries {
+        final XYChart.Series<Number, Number> series = new XYChart.Series<>();
+        final List<Long> history = new ArrayList<>();
+        int lastYear = -1;
+    }
+
+    // Called on the FX thread; moves whatever years the worker has produced into the series
+    private void appendPoints(Queue<YearSnapshot> pending, LiveSeries live) {
+        int shown = live.history.size();
+        YearSnapshot snapshot;
+        while ((snapshot = pending.poll()) != null) {
+            live.history.add(snapshot.getPopulation());
+            live.lastYear = snapshot.getYear();
         }
-        chart.getData().clear();
-        chart.getData().add(series);
+        if (live.history.size() == shown) {
+            return;
+        }
+        // Appends until the series holds twice the plot's width, then thins it back down to one width
+        if (live.series.getData().size() + live.history.size() - shown > 2 * maxChartPoints()) {
+            showDecimated(live.history, live.series);
+            return;
+        }
+        List<XYChart.Data<Number, Number>> batch = new ArrayList<>(live.history.size() - shown);
+        for (int year = shown; year < live.history.size(); year++) {
+            batch.add(new XYChart.Data<>(year, live.history.get(year)));
+        }
+        live.series.getData().addAll(batch);
+    }
+
+    // Redraws the run with no more points than the plot is wide
+    private void showDecimated(List<Long> populationData, XYChart.Series<Number, Number> series) {
+        int[] points = ChartDecimator.selectIndices(populationData, maxChartPoints());
+        List<XYChart.Data<Number, Number>> data = new ArrayList<>(points.length);
+        for (int year : points) {
+            data.add(new XYChart.Data<>(year, populationData.get(year)));
+        }
+        series.getData().setAll(data);
+    }
+
+    private int maxChartPoints() {
+        return (int) Math.max(chart.getWidth(), MIN_CHART_POINTS);
     }
 
     public static void main(String[] args) {
@@ -1,23 +1,47 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
 
 public class BiologicalResearchTool {
     private static final Scanner scanner = new Scanner(System.in);
-    private static SimulationManager simulationManager = new SimulationManager();
+    // Created once the menu starts, so batch mode does not open a second manager
+    private static SimulationManager simulationManager;
+    private static ResultCache resultCache;
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--batch")) {
+            System.exit(BatchRunner.run(Arrays.copyOfRange(args, 1, args.length)));
+        }
+        if (args.length > 0) {
+            System.err.println("Unknown option: " + args[0] + " (use --batch <profiles.csv> for batch mode)");
+            System.exit(BatchRunner.EXIT_USAGE);
+        }
+
+        simulationManager = new SimulationManager();
+        resultCache = new ResultCache();
         System.out.println("=== Biological Population Simulator ===");
         
         while (true) {
             displayMainMenu();
-            int choice = getIntInput("Enter your choice: ", 1, 5);
+            int choice = getIntInput("Enter your choice: ", 1, 6);
             
             switch (choice) {
                 case 1 -> runNewSimulation();
                 case 2 -> viewSavedSimulations();
                 case 3 -> displayHelp();
                 case 4 -> configureSettings();
-                case 5 -> {
+                case 5 -> advancedAnalysis();
+                case 6 -> {
                     System.out.println("Exiting...");
+                    simulationManager.close(); // waits for queued saves
                     System.exit(0);
                 }
             }
@@ -30,26 +54,44 @@ public class BiologicalResearchTool {
         System.out.println("2. View Saved Simulations");
         System.out.println("3. Help");
         System.out.println("4. Settings");
-        System.out.println("5. Exit");
+        System.out.println("5. Advanced Analysis");
+        System.out.println("6. Exit");
     }
 
     private static void runNewSimulation() {
         System.out.println("\n=== New Simulation ===");
         
         // Get simulation parameters
-        String speciesName = getStringInput("Enter species name: ");
-        double avgLitterSize = getDoubleInput("Enter average litter size: ", 0.1, 100);
-        double avgLittersPerYear = getDoubleInput("Enter average litters per year: ", 0.1, 50);
-        double survivalRate = getDoubleInput("Enter survival rate (0.0-1.0): ", 0, 1);
-        int reproductionAge = getIntInput("Enter reproduction age (months): ", 1, 1200);
+        SpeciesProfile profile = readSpeciesProfile();
         int initialPopulation = getIntInput("Enter initial population: ", 1, Integer.MAX_VALUE);
         int simulationYears = getIntInput("Enter years to simulate: ", 1, 1000);
+        Long seed = getOptionalLongInput("Enter random seed (blank for random): ");
+        DensityDependence density = readDensityDependence();
+        SimulationMode mode = getYesNoInput("Spread litters through the year (monthly events)? (y/n): ")
+                ? SimulationMode.MONTHLY : SimulationMode.COHORT;
         
         // Create and run simulation
-        SpeciesProfile profile = new SpeciesProfile(speciesName, avgLitterSize, avgLittersPerYear, 
-                                                 survivalRate, reproductionAge);
-        PopulationSimulation simulation = new PopulationSimulation(profile, initialPopulation, simulationYears);
-        simulation.run();
+        PopulationSimulation simulation = seed == null
+                ? new PopulationSimulation(profile, initialPopulation, simulationYears, mode)
+                : new PopulationSimulation(profile, initialPopulation, simulationYears, mode, seed);
+        simulation.setDensityDependence(density);
+        // Only seeded runs can repeat; a random seed would just fill the cache
+        PopulationSimulation cached = seed != null ? resultCache.get(simulation) : null;
+        if (cached != null) {
+            System.out.println("Identical run found in the result cache");
+            simulation = cached;
+        } else {
+            String checkpointName = null;
+            if (simulationYears >= 100) {
+                simulation.addListener(ConsoleChart.progressListener(profile.getName(), simulationYears));
+                checkpointName = offerCheckpoints(simulation);
+            }
+            simulation.run();
+            finishCheckpoints(checkpointName);
+            if (seed != null) {
+                resultCache.put(simulation);
+            }
+        }
         
         // Display results
         displayResults(simulation);
@@ -61,14 +103,79 @@ public class BiologicalResearchTool {
         }
     }
 
+    // Long runs can leave checkpoints behind to resume or fork from later; returns their name, if any
+    private static String offerCheckpoints(PopulationSimulation simulation) {
+        while (true) {
+            Long interval = getOptionalLongInput("Checkpoint every how many years? (blank for none): ");
+            if (interval == null) {
+                return null;
+            }
+            if (interval < 1 || interval >= simulation.getSimulationYears()) {
+                System.out.printf("Please enter a number between 1 and %d%n", simulation.getSimulationYears() - 1);
+                continue;
+            }
+            String name = getStringInput("Enter checkpoint name: ");
+            simulationManager.enableCheckpoints(simulation, name, interval.intValue());
+            return name;
+        }
+    }
+
+    // Checkpoints of a finished run are only worth their disk space as fork points
+    private static void finishCheckpoints(String name) {
+        if (name == null || getYesNoInput("Keep the checkpoints of " + name + " to fork from later? (y/n): ")) {
+            return;
+        }
+        if (!simulationManager.deleteCheckpoints(name)) {
+            System.err.println("Could not delete every checkpoint of " + name);
+        }
+    }
+
+    private static DensityDependence readDensityDependence() {
+        while (true) {
+            Long capacity = getOptionalLongInput("Enter carrying capacity K (blank for unlimited growth): ");
+            if (capacity == null) {
+                return DensityDependence.NONE;
+            }
+            if (capacity < 1) {
+                System.out.println("Carrying capacity must be at least 1");
+                continue;
+            }
+            System.out.println("1. Logistic (may overshoot K and oscillate)");
+            System.out.println("2. Beverton-Holt (settles at K smoothly)");
+            return getIntInput("Select density model: ", 1, 2) == 1
+                    ? DensityDependence.logistic(capacity) : DensityDependence.bevertonHolt(capacity);
+        }
+    }
+
+    private static SpeciesProfile readSpeciesProfile() {
+        String speciesName = getStringInput("Enter species name: ");
+        double avgLitterSize = getDoubleInput("Enter average litter size: ", 0.1, 100);
+        double avgLittersPerYear = getDoubleInput("Enter average litters per year: ", 0.1, 50);
+        double survivalRate = getDoubleInput("Enter survival rate (0.0-1.0): ", 0, 1);
+        int reproductionAge = getIntInput("Enter reproduction age (months): ", 1, 1200);
+        return new SpeciesProfile(speciesName, avgLitterSize, avgLittersPerYear, 
+                                  survivalRate, reproductionAge);
+    }
+
     private static void displayResults(PopulationSimulation simulation) {
         System.out.println("\n=== Simulation Results ===");
         System.out.println("Species: " + simulation.getSpeciesProfile().getName());
         System.out.printf("Final Population: %,d%n", simulation.getFinalPopulation());
         System.out.printf("Growth Rate: %.2f%% per year%n", simulation.getAverageGrowthRate());
+        System.out.println("Seed: " + simulation.getSeed());
+        if (simulation.getMode() != SimulationMode.COHORT) {
+            System.out.println("Engine: " + simulation.getMode().getDescription());
+        }
+        if (simulation.getDensityDependence().isEnabled()) {
+            System.out.println("Density Dependence: " + simulation.getDensityDependence());
+        }
+        if (simulation.isPopulationLimitReached()) {
+            System.out.printf("Warning: population ceiling reached in year %d; later years are capped%n",
+                              simulation.getLimitReachedYear());
+        }
     
     // Adjust chart width for large populations
-        int finalPop = simulation.getFinalPopulation();
+        long finalPop = simulation.getFinalPopulation();
         if (finalPop > 10000) {
             ConsoleChart.setDefaultWidth(80);
             ConsoleChart.setDefaultHeight(30);
@@ -135,6 +242,7 @@ public class BiologicalResearchTool {
         System.out.printf("Simulation Years: %,d%n", sim.getSimulationYears());
         System.out.printf("Final Population: %,d%n", sim.getFinalPopulation());
         System.out.printf("Average Growth Rate: %.2f%% per year%n", sim.getAverageGrowthRate());
+        System.out.println("Seed: " + sim.getSeed());
     
         // Display visualization options
         System.out.println("\nVisualization Options:");
@@ -164,6 +272,361 @@ public class BiologicalResearchTool {
         }
     }
 
+    private static void advancedAnalysis() {
+        System.out.println("\n=== Advanced Analysis ===");
+        System.out.println("1. Monte Carlo Replicates");
+        System.out.println("2. Parameter Sweep");
+        System.out.println("3. Deterministic Projection");
+        System.out.println("4. Metapopulation (Habitat Grid)");
+        System.out.println("5. Predator-Prey Community");
+        System.out.println("6. Resume or Fork a Checkpointed Run");
+        System.out.println("7. Open a Replicate Archive");
+        System.out.println("8. Back to Main Menu");
+
+        int choice = getIntInput("Enter your choice: ", 1, 8);
+
+        switch (choice) {
+            case 1 -> runMonteCarlo();
+            case 2 -> runParameterSweep();
+            case 3 -> runDeterministicProjection();
+            case 4 -> runMetapopulation();
+            case 5 -> runPredatorPrey();
+            case 6 -> resumeFromCheckpoint();
+            case 7 -> openReplicateArchive();
+            // case 8 returns to main menu
+        }
+    }
+
+    private static void runMonteCarlo() {
+        System.out.println("\n=== Monte Carlo Replicates ===");
+
+        SpeciesProfile profile = readSpeciesProfile();
+        int initialPopulation = getIntInput("Enter initial population: ", 1, Integer.MAX_VALUE);
+        int simulationYears = getIntInput("Enter years to simulate: ", 1, 1000);
+        int replicates = getIntInput("Enter number of replicates: ", 1, 1_000_000);
+        Long seed = getOptionalLongInput("Enter batch seed (blank for random): ");
+        long batchSeed = seed != null ? seed : System.nanoTime();
+
+        ReplicateArchive archive = null;
+        if (getYesNoInput("Archive every replicate to disk? (y/n): ")) {
+            String archiveName = getStringInput("Enter archive name: ");
+            try {
+                archive = simulationManager.createArchive(archiveName, profile, initialPopulation, simulationYears,
+                        SimulationMode.COHORT, batchSeed);
+            } catch (IOException e) {
+                System.err.println("Error creating archive: " + e.getMessage());
+                return;
+            }
+        }
+
+        MonteCarloRunner runner = new MonteCarloRunner();
+        long start = System.nanoTime();
+        MonteCarloResult result;
+        try {
+            result = runner.run(profile, initialPopulation, simulationYears,
+                                SimulationMode.COHORT, replicates, batchSeed, archive);
+        } catch (UncheckedIOException e) {
+            System.err.println("Error writing archive: " + e.getCause().getMessage());
+            return;
+        } finally {
+            if (archive != null) {
+                try {
+                    archive.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing archive: " + e.getMessage());
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%n%,d replicates on %d threads in %.2f s (batch seed %d)%n",
+                          replicates, runner.getParallelism(), seconds, batchSeed);
+        displayMonteCarloResult(result);
+    }
+
+    private static void openReplicateArchive() {
+        System.out.println("\n=== Open a Replicate Archive ===");
+        String[] names = simulationManager.listArchives();
+        if (names.length == 0) {
+            System.out.println("No replicate archives found");
+            return;
+        }
+        for (String name : names) {
+            System.out.println("- " + name);
+        }
+        String name = getStringInput("Enter archive name: ");
+        MonteCarloResult result;
+        try (ReplicateArchive archive = simulationManager.openArchive(name)) {
+            System.out.println(archive.getSpeciesProfile());
+            System.out.printf("Initial Population: %,d%n", archive.getInitialPopulation());
+            System.out.printf("%,d replicates of %d years (%s mode, batch seed %d)%n", archive.getRunCount(),
+                              archive.getSimulationYears(), archive.getMode(), archive.getBatchSeed());
+            if (archive.getRunCount() == 0) {
+                return;
+            }
+            result = archive.summarize();
+        } catch (IOException e) {
+            System.err.println("Error opening archive: " + e.getMessage());
+            return;
+        }
+        displayMonteCarloResult(result);
+    }
+
+    private static void displayMonteCarloResult(MonteCarloResult result) {
+        int simulationYears = result.getSimulationYears();
+        System.out.printf("%6s %14s %14s %14s %14s %14s%n", "Year", "Mean", "Std Dev", "5%", "Median", "95%");
+        int step = Math.max(1, simulationYears / 20);
+        for (int year = 0; year <= simulationYears; year += step) {
+            System.out.printf("%6d %,14.0f %,14.0f %,14.0f %,14.0f %,14.0f%n", year,
+                              result.getMean(year), result.getStandardDeviation(year),
+                              result.getPercentile5(year), result.getMedian(year), result.getPercentile95(year));
+        }
+
+        if (getYesNoInput("Show median chart? (y/n): ")) {
+            ConsoleChart.display(result.getMedianHistory(), result.getSpeciesProfile().getName() + " (median)");
+        }
+        if (getYesNoInput("Save HTML report with percentile bands? (y/n): ")) {
+            saveMonteCarloReport(result);
+        }
+    }
+
+    private static void saveMonteCarloReport(MonteCarloResult result) {
+        int points = result.getSimulationYears() + 1;
+        double[] mean = new double[points];
+        double[] p5 = new double[points];
+        double[] p95 = new double[points];
+        for (int year = 0; year < points; year++) {
+            mean[year] = result.getMean(year);
+            p5[year] = result.getPercentile5(year);
+            p95[year] = result.getPercentile95(year);
+        }
+        String title = result.getSpeciesProfile().getName() + " Monte Carlo";
+        String filename = HTMLChartGenerator.fileName(title, "_report.html");
+        try (Writer out = Files.newBufferedWriter(Path.of(filename));
+             HTMLReportWriter report = new HTMLReportWriter(out, title)) {
+            report.addBand("5th to 95th percentile", p5, p95);
+            report.addRun("Median", result.getMedianHistory());
+            report.addRun("Mean", mean);
+        } catch (IOException e) {
+            System.err.println("Error saving report: " + e.getMessage());
+            return;
+        }
+        System.out.println("Report saved as: " + filename);
+    }
+
+    private static void runDeterministicProjection() {
+        System.out.println("\n=== Deterministic Projection ===");
+
+        SpeciesProfile profile = readSpeciesProfile();
+        int initialPopulation = getIntInput("Enter initial population: ", 1, Integer.MAX_VALUE);
+        int simulationYears = getIntInput("Enter years to simulate: ", 1, 1000);
+
+        PopulationSimulation simulation = new PopulationSimulation(profile, initialPopulation, simulationYears,
+                                                                   SimulationMode.DETERMINISTIC);
+        simulation.run();
+        double lambda = new LeslieProjection(profile).dominantEigenvalue();
+
+        System.out.println("\n=== Projection Results ===");
+        System.out.println("Species: " + profile.getName());
+        System.out.printf("Expected Final Population: %,d%n", simulation.getFinalPopulation());
+        System.out.printf("Dominant Eigenvalue (lambda): %.4f%n", lambda);
+        System.out.printf("Asymptotic Growth Rate: %.2f%% per year%n", (lambda - 1) * 100);
+
+        if (getYesNoInput("Show chart? (y/n): ")) {
+            ConsoleChart.display(simulation.getPopulationHistory(), profile.getName() + " (expected)");
+        }
+    }
+
+    private static void runMetapopulation() {
+        System.out.println("\n=== Metapopulation ===");
+
+        SpeciesProfile profile = readSpeciesProfile();
+        int width = getIntInput("Enter grid width (patches): ", 1, 1000);
+        int height = getIntInput("Enter grid height (patches): ", 1, 1000);
+        double emigrationRate = getDoubleInput("Enter yearly emigration probability (0.0-1.0): ", 0, 1);
+        int initialPopulation = getIntInput("Enter initial population per patch: ", 0, Integer.MAX_VALUE);
+        int simulationYears = getIntInput("Enter years to simulate: ", 1, 1000);
+        Long seed = getOptionalLongInput("Enter random seed (blank for random): ");
+
+        MigrationMatrix migration = MigrationMatrix.grid(width, height, emigrationRate);
+        List<Long> history = new ArrayList<>();
+        long start = System.nanoTime();
+        try (MetapopulationEngine engine = new MetapopulationEngine(profile, migration,
+                seed != null ? seed : System.nanoTime())) {
+            engine.initialize((long) initialPopulation * migration.getPatches());
+            history.add(engine.getPopulation());
+            int reportEvery = Math.max(1, simulationYears / 10);
+            for (int year = 1; year <= simulationYears; year++) {
+                history.add(engine.step());
+                if (year % reportEvery == 0 || year == simulationYears) {
+                    System.out.printf("Year %d: population %,d in %,d of %,d patches, %,d migrants%n", year,
+                            engine.getPopulation(), engine.getOccupiedPatches(), engine.getPatchCount(),
+                            engine.getLastMigrants());
+                }
+            }
+            if (engine.isLimitReached()) {
+                System.out.println("Warning: population ceiling reached; later years are capped");
+            }
+        }
+        System.out.printf("%,d patch-years in %.2f s%n", (long) migration.getPatches() * simulationYears,
+                (System.nanoTime() - start) / 1e9);
+
+        if (getYesNoInput("Show chart of total population? (y/n): ")) {
+            ConsoleChart.display(history, profile.getName() + " (all patches)");
+        }
+    }
+
+    private static void runPredatorPrey() {
+        System.out.println("\n=== Predator-Prey Community ===");
+
+        System.out.println("Prey species:");
+        SpeciesProfile prey = readSpeciesProfile();
+        int preyPopulation = getIntInput("Enter initial prey population: ", 1, Integer.MAX_VALUE);
+        System.out.println("Predator species:");
+        SpeciesProfile predator = readSpeciesProfile();
+        int predatorPopulation = getIntInput("Enter initial predator population: ", 1, Integer.MAX_VALUE);
+        double attackRate = getDoubleInput("Enter attack rate (prey survival falls by exp(-rate x predators)): ",
+                0, 1);
+        double halfSaturation = getDoubleInput("Enter prey numbers at which predator survival is halved: ",
+                1, 1e12);
+        int simulationYears = getIntInput("Enter years to simulate: ", 1, 1000);
+        Long seed = getOptionalLongInput("Enter random seed (blank for random): ");
+
+        CommunitySimulation community = new CommunitySimulation(simulationYears,
+                seed != null ? seed : System.nanoTime());
+        int preyIndex = community.addSpecies(prey, preyPopulation);
+        int predatorIndex = community.addSpecies(predator, predatorPopulation);
+        community.addInteraction(preyIndex, InteractionTerm.predation(predatorIndex, attackRate));
+        community.addInteraction(predatorIndex, InteractionTerm.foodLimitation(preyIndex, halfSaturation));
+        community.run();
+
+        System.out.println("\n=== Community Results ===");
+        System.out.println("Seed: " + community.getSeed());
+        System.out.printf("Final %s population: %,d%n", prey.getName(), community.getFinalPopulation(preyIndex));
+        System.out.printf("Final %s population: %,d%n", predator.getName(),
+                community.getFinalPopulation(predatorIndex));
+
+        if (getYesNoInput("Show charts? (y/n): ")) {
+            ConsoleChart.display(community.getPopulationHistory(preyIndex), prey.getName());
+            ConsoleChart.display(community.getPopulationHistory(predatorIndex), predator.getName());
+        }
+    }
+
+    private static void resumeFromCheckpoint() {
+        System.out.println("\n=== Resume or Fork a Checkpointed Run ===");
+        String[] runs = simulationManager.listCheckpointedRuns();
+        if (runs.length == 0) {
+            System.out.println("No checkpoints found");
+            return;
+        }
+        for (String run : runs) {
+            System.out.println("- " + run + " (years " + Arrays.toString(simulationManager.listCheckpointYears(run)) + ")");
+        }
+        String name = getStringInput("Enter checkpointed run name: ");
+        int[] years = simulationManager.listCheckpointYears(name);
+        if (years.length == 0) {
+            System.out.println("No checkpoints found for " + name);
+            return;
+        }
+
+        System.out.println("1. Resume from the latest checkpoint (year " + years[years.length - 1] + ")");
+        System.out.println("2. Fork a what-if branch from a saved year");
+        boolean fork = getIntInput("Enter your choice: ", 1, 2) == 2;
+        int latest = years[years.length - 1];
+        int year = fork ? getIntInput("Fork from year: ", years[0], latest) : latest;
+        while (Arrays.binarySearch(years, year) < 0) {
+            System.out.println("No checkpoint for that year");
+            year = getIntInput("Fork from year: ", years[0], latest);
+        }
+        SimulationCheckpoint checkpoint = simulationManager.loadCheckpoint(name, year);
+        if (checkpoint == null) {
+            return;
+        }
+
+        PopulationSimulation simulation;
+        if (fork) {
+            SpeciesProfile parent = checkpoint.getSpeciesProfile();
+            System.out.println("Parent run: " + parent);
+            double litterSize = getDoubleInput("Enter average litter size for the branch: ", 0.1, 100);
+            double littersPerYear = getDoubleInput("Enter average litters per year for the branch: ", 0.1, 50);
+            double survivalRate = getDoubleInput("Enter survival rate for the branch (0.0-1.0): ", 0, 1);
+            int simulationYears = getIntInput("Enter total years for the branch: ", year + 1, year + 1000);
+            Long seed = getOptionalLongInput("Enter branch seed (blank for random): ");
+            DensityDependence density = readDensityDependence();
+            SpeciesProfile profile = new SpeciesProfile(parent.getName(), litterSize, littersPerYear,
+                    survivalRate, parent.getReproductionAge());
+            simulation = checkpoint.fork(profile, density, simulationYears, seed != null ? seed : System.nanoTime());
+        } else {
+            simulation = checkpoint.resume();
+        }
+        String checkpointName = null;
+        if (simulation.getSimulationYears() - year >= 100) {
+            simulation.addListener(ConsoleChart.progressListener(simulation.getSpeciesProfile().getName(),
+                    simulation.getSimulationYears()));
+            checkpointName = offerCheckpoints(simulation);
+        }
+        simulation.run();
+        finishCheckpoints(checkpointName);
+        System.out.printf("%nContinued from year %d of %s%n", simulation.getResumedYear(), name);
+        displayResults(simulation);
+
+        if (getYesNoInput("Save this simulation? (y/n): ")) {
+            String saveName = getStringInput("Enter save name: ");
+            simulationManager.saveSimulation(simulation, saveName);
+        }
+    }
+
+    private static void runParameterSweep() {
+        System.out.println("\n=== Parameter Sweep ===");
+
+        String speciesName = getStringInput("Enter species name: ");
+        ParameterSweep.Range litterSize = readRange("average litter size", 0.1, 100);
+        double littersPerYear = getDoubleInput("Enter average litters per year: ", 0.1, 50);
+        ParameterSweep.Range survivalRate = readRange("survival rate", 0, 1);
+        ParameterSweep.Range reproductionAge = readRange("reproduction age (months)", 1, 1200);
+        int initialPopulation = getIntInput("Enter initial population: ", 1, Integer.MAX_VALUE);
+        int simulationYears = getIntInput("Enter years to simulate: ", 1, 1000);
+        Long seed = getOptionalLongInput("Enter sweep seed (blank for random): ");
+        SimulationMode mode = getYesNoInput("Use deterministic projection instead of stochastic runs? (y/n): ")
+                ? SimulationMode.DETERMINISTIC : SimulationMode.COHORT;
+        String filename = speciesName.replaceAll("[^a-zA-Z0-9]", "_") + "_sweep.csv";
+
+        ParameterSweep sweep = new ParameterSweep(speciesName, litterSize, ParameterSweep.Range.fixed(littersPerYear),
+                survivalRate, reproductionAge, initialPopulation, simulationYears, mode,
+                seed != null ? seed : System.nanoTime());
+        System.out.printf("Running %,d grid points...%n", sweep.getGridSize());
+
+        int[] extinct = new int[1];
+        long start = System.nanoTime();
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Path.of(filename)))) {
+            writer.println("litter_size,survival_rate,reproduction_age,seed,final_population,"
+                    + "min_population,max_population,growth_rate,extinct");
+            long runs = sweep.run(result -> {
+                SpeciesProfile profile = result.getSpeciesProfile();
+                writer.printf(Locale.ROOT, "%.4f,%.4f,%d,%d,%d,%d,%d,%.4f,%b%n", profile.getAvgLitterSize(),
+                        profile.getSurvivalRate(), profile.getReproductionAge(), result.getSeed(),
+                        result.getFinalPopulation(), result.getMinimumPopulation(),
+                        result.getMaximumPopulation(), result.getAverageGrowthRate(), result.wentExtinct());
+                if (result.wentExtinct()) extinct[0]++;
+            });
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%,d runs in %.2f s, %,d went extinct%n", runs, seconds, extinct[0]);
+            System.out.println("Results saved as: " + filename);
+        } catch (IOException e) {
+            System.err.println("Error writing sweep results: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Sweep interrupted");
+        }
+    }
+
+    private static ParameterSweep.Range readRange(String label, double min, double max) {
+        double from = getDoubleInput("Enter minimum " + label + ": ", min, max);
+        double to = getDoubleInput("Enter maximum " + label + ": ", from, max);
+        int steps = from == to ? 1 : getIntInput("Enter number of " + label + " values: ", 1, 1000);
+        return new ParameterSweep.Range(from, to, steps);
+    }
+
     private static void displayHelp() {
         System.out.println("\n=== Biological Research Tool Help ===");
         System.out.println("\nThis tool simulates population growth based on biological parameters.");
@@ -172,6 +635,8 @@ public class BiologicalResearchTool {
         System.out.println("- View population growth over time");
         System.out.println("- Save and load simulations for later analysis");
         System.out.println("- Generate visualizations (console and HTML charts)");
+        System.out.println("- Run a file of species unattended: --batch <profiles.csv> (see --batch --help)");
+        System.out.println("- Checkpoint long runs, then resume or fork them (Advanced Analysis)");
     
         System.out.println("\nParameter Definitions:");
         System.out.println("1. Average Litter Size: Typical number of offspring per litter");
@@ -194,9 +659,11 @@ public class BiologicalResearchTool {
         System.out.println("1. Default Chart Width: " + ConsoleChart.getDefaultWidth());
         System.out.println("2. Default Chart Height: " + ConsoleChart.getDefaultHeight());
         System.out.println("3. HTML Chart Theme: " + HTMLChartGenerator.getCurrentTheme());
-        System.out.println("4. Back to Main Menu");
+        System.out.println("4. Performance Metrics: " + (SimulationMetrics.isEnabled() ? "on" : "off"));
+        System.out.println("5. Result Cache: " + resultCache);
+        System.out.println("6. Back to Main Menu");
     
-        int choice = getIntInput("\nSelect setting to change: ", 1, 4);
+        int choice = getIntInput("\nSelect setting to change: ", 1, 6);
     
         switch (choice) {
             case 1 -> {
@@ -218,6 +685,41 @@ public class BiologicalResearchTool {
                 HTMLChartGenerator.setTheme(theme);
                 System.out.println("Theme updated");
             }
+            case 4 -> configureMetrics();
+            case 5 -> {
+                if (getYesNoInput("Clear all cached results? (y/n): ")) {
+                    resultCache.clear();
+                    System.out.println("Result cache cleared");
+                }
+            }
+        }
+    }
+
+    private static void configureMetrics() {
+        SimulationMetrics.printSummary();
+        System.out.println("\n1. " + (SimulationMetrics.isEnabled() ? "Disable" : "Enable") + " metrics");
+        System.out.println("2. Export metrics as CSV");
+        System.out.println("3. Reset metrics");
+        System.out.println("4. Back");
+
+        switch (getIntInput("Select option: ", 1, 4)) {
+            case 1 -> {
+                SimulationMetrics.setEnabled(!SimulationMetrics.isEnabled());
+                System.out.println("Metrics " + (SimulationMetrics.isEnabled() ? "enabled" : "disabled"));
+            }
+            case 2 -> {
+                try {
+                    SimulationMetrics.exportSummaryCsv(Path.of("metrics_summary.csv"));
+                    SimulationMetrics.exportLastRunCsv(Path.of("metrics_last_run.csv"));
+                    System.out.println("Metrics saved as: metrics_summary.csv and metrics_last_run.csv");
+                } catch (IOException e) {
+                    System.err.println("Error writing metrics: " + e.getMessage());
+                }
+            }
+            case 3 -> {
+                SimulationMetrics.reset();
+                System.out.println("Metrics reset");
+            }
         }
     }
 
@@ -256,6 +758,21 @@ public class BiologicalResearchTool {
         }
     }
 
+    private static Long getOptionalLongInput(String prompt) {
+        while (true) {
+            System.out.print(prompt);
+            String input = scanner.nextLine().trim();
+            if (input.isEmpty()) {
+                return null;
+            }
+            try {
+                return Long.parseLong(input);
+            } catch (NumberFormatException e) {
+                System.out.println("Invalid input. Please enter a whole number or leave blank.");
+            }
+        }
+    }
+
     private static boolean getYesNoInput(String prompt) {
         while (true) {
             System.out.print(prompt);
@@ -0,0 +1,72 @@
+import java.util.List;
+
+/**
+ * Picks which points of a long series to draw using Largest-Triangle-Three-Buckets.
+ * The first and last points are always kept and each bucket keeps the point
+ * that spans the largest triangle with its neighbours, so peaks and crashes
+ * survive downsampling.
+ */
+public class ChartDecimator {
+
+    private ChartDecimator() {
+    }
+
+    /** Indices (ascending) of the points to draw; all indices when the series already fits. */
+    public static int[] selectIndices(List<? extends Number> values, int maxPoints) {
+        int size = values.size();
+        if (maxPoints >= size || maxPoints < 3) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[maxPoints];
+        int count = 0;
+        selected[count++] = 0;
+
+        // Interior points are split into maxPoints - 2 buckets
+        double bucketSize = (double) (size - 2) / (maxPoints - 2);
+        int previous = 0;
+
+        for (int bucket = 0; bucket < maxPoints - 2; bucket++) {
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            // Average of the next bucket is the third corner of the triangle
+            int nextStart = end;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, size);
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += i;
+                averageY += values.get(i).doubleValue();
+            }
+            int nextCount = Math.max(1, nextEnd - nextStart);
+            averageX /= nextCount;
+            averageY /= nextCount;
+            if (nextEnd <= nextStart) {
+                averageX = size - 1;
+                averageY = values.get(size - 1).doubleValue();
+            }
+
+            double previousY = values.get(previous).doubleValue();
+            double largestArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((previous - averageX) * (values.get(i).doubleValue() - previousY)
+                        - (previous - i) * (averageY - previousY));
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+            selected[count++] = chosen;
+            previous = chosen;
+        }
+
+        selected[count] = size - 1;
+        return selected;
+    }
+}
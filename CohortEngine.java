@@ -0,0 +1,260 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Age-structured engine that keeps one animal count per age-in-months bucket
+ * instead of one entry per animal, so a simulated year costs the same for ten
+ * animals as for ten billion.
+ */
+public class CohortEngine implements PopulationEngine {
+    // Ceiling that keeps every sum of buckets well inside a long
+    static final long POPULATION_LIMIT = 1_000_000_000_000_000_000L;
+
+    private final SpeciesProfile speciesProfile;
+    private final RandomGenerator random;
+    private final int reproductionAge;
+    // counts[age] = animals of that age in months; the last bucket holds every elder
+    private final long[] counts;
+    private final double litterMean;
+    private final double litterVariance;
+    // Starts at the profile's rate; coupled engines may change it from year to year
+    private double survivalRate;
+    private long population;
+    private long lastBirths;
+    private long lastDeaths;
+    private long lastBreeders;
+    private boolean limitReached;
+    // POPULATION_LIMIT, or a patch's share of it when several engines are summed
+    private final long populationLimit;
+    // A lone population is reseeded when it dies out; a patch of a metapopulation may stay empty
+    private final boolean reseedExtinct;
+    private final DensityDependence density;
+    private final boolean timed = SimulationMetrics.isEnabled();
+
+    public CohortEngine(SpeciesProfile speciesProfile, RandomGenerator random) {
+        this(speciesProfile, random, DensityDependence.NONE);
+    }
+
+    public CohortEngine(SpeciesProfile speciesProfile, RandomGenerator random, DensityDependence density) {
+        this(speciesProfile, random, true, density);
+    }
+
+    CohortEngine(SpeciesProfile speciesProfile, RandomGenerator random, boolean reseedExtinct,
+                 DensityDependence density) {
+        this(speciesProfile, random, reseedExtinct, density, POPULATION_LIMIT);
+    }
+
+    CohortEngine(SpeciesProfile speciesProfile, RandomGenerator random, boolean reseedExtinct,
+                 DensityDependence density, long populationLimit) {
+        if (speciesProfile.getReproductionAge() < 1) {
+            throw new IllegalArgumentException("Reproduction age must be at least 1 month");
+        }
+        this.speciesProfile = speciesProfile;
+        this.reseedExtinct = reseedExtinct;
+        this.populationLimit = populationLimit;
+        this.density = density.forProfile(speciesProfile);
+        this.random = random;
+        this.reproductionAge = speciesProfile.getReproductionAge();
+        this.survivalRate = speciesProfile.getSurvivalRate();
+        // Ages 0..3*reproductionAge each behave differently; anything older is an elder
+        this.counts = new long[reproductionAge * 3 + 2];
+
+        double[] moments = litterMoments(speciesProfile.getAvgLitterSize());
+        this.litterMean = moments[0];
+        this.litterVariance = moments[1];
+    }
+
+    // Mean and variance of one litter, (int)(avgLitterSize * U(0.8, 1.2))
+    static double[] litterMoments(double avgLitterSize) {
+        double low = avgLitterSize * 0.8;
+        double high = avgLitterSize * 1.2;
+        if (high <= low) {
+            return new double[] {(long) low, 0};
+        }
+        double mean = 0;
+        double meanSquare = 0;
+        for (long k = (long) low; k <= (long) high; k++) {
+            double probability = (Math.min(high, k + 1) - Math.max(low, k)) / (high - low);
+            mean += k * probability;
+            meanSquare += (double) k * k * probability;
+        }
+        return new double[] {mean, Math.max(0, meanSquare - mean * mean)};
+    }
+
+    @Override
+    public void initialize(long initialPopulation) {
+        // Spread animals uniformly over ages 0 .. 2*reproductionAge-1 (multinomial draw)
+        long remaining = initialPopulation;
+        int ageSpan = reproductionAge * 2;
+        for (int age = 0; age < ageSpan && remaining > 0; age++) {
+            long drawn = RandomDraws.binomial(random, remaining, 1.0 / (ageSpan - age));
+            counts[age] = drawn;
+            remaining -= drawn;
+        }
+        // Only animals actually placed in a bucket count
+        population = initialPopulation - remaining;
+    }
+
+    @Override
+    public long step() {
+        long mark = timed ? System.nanoTime() : 0;
+        // Density acts on the population the year starts with
+        double yearSurvival = survivalRate * density.factor(population);
+        ageOneYear();
+        mark = SimulationMetrics.lap(timed, SimulationMetrics.Phase.AGING, mark);
+
+        long breedingFemales = calculateBreedingPopulation();
+        long newOffspring = calculateNewOffspring(breedingFemales, yearSurvival);
+        mark = SimulationMetrics.lap(timed, SimulationMetrics.Phase.BREEDING, mark);
+
+        long before = population;
+        population = applyAnnualMortality(yearSurvival);
+        lastDeaths = before - population;
+        mark = SimulationMetrics.lap(timed, SimulationMetrics.Phase.MORTALITY, mark);
+        lastBirths = newOffspring;
+        lastBreeders = breedingFemales;
+
+        if (newOffspring > populationLimit - population) {
+            newOffspring = populationLimit - population;
+            lastBirths = newOffspring;
+            limitReached = true;
+        }
+        counts[0] += newOffspring; // Newborns have age 0
+        population += newOffspring;
+        long recorded = population;
+        SimulationMetrics.lap(timed, SimulationMetrics.Phase.OFFSPRING, mark);
+
+        // Prevent extinction
+        if (population <= 0 && reseedExtinct) {
+            counts[reproductionAge] = 1; // Add one mature individual
+            population = 1;
+        }
+        return recorded;
+    }
+
+    @Override
+    public long getPopulation() { return population; }
+
+    @Override
+    public long getLastBirths() { return lastBirths; }
+
+    @Override
+    public long getLastDeaths() { return lastDeaths; }
+
+    @Override
+    public long getLastBreeders() { return lastBreeders; }
+
+    @Override
+    public boolean isLimitReached() { return limitReached; }
+
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeInt(counts.length);
+        for (long count : counts) {
+            out.writeLong(count);
+        }
+        out.writeBoolean(limitReached);
+    }
+
+    @Override
+    public void restoreState(DataInput in) throws IOException {
+        int buckets = in.readInt();
+        if (buckets != counts.length) {
+            throw new IOException("Checkpoint has " + buckets + " age buckets, expected " + counts.length);
+        }
+        long total = 0;
+        for (int age = 0; age < buckets; age++) {
+            counts[age] = in.readLong();
+            total += counts[age];
+        }
+        population = total;
+        limitReached = in.readBoolean();
+    }
+
+    // Direct bucket access for engines that move animals between cohort states
+
+    int getAgeBuckets() { return counts.length; }
+
+    long getPopulationLimit() { return populationLimit; }
+
+    long getCount(int age) { return counts[age]; }
+
+    /** Survival rate used from the next step on, in place of the profile's. */
+    void setSurvivalRate(double survivalRate) {
+        this.survivalRate = survivalRate;
+    }
+
+    void addCount(int age, long delta) {
+        counts[age] += delta;
+        population += delta;
+    }
+
+    private void ageOneYear() {
+        // Every bucket moves 12 months up; buckets that pass the last one merge into it
+        int elderBucket = counts.length - 1;
+        int firstMerging = Math.max(0, elderBucket - PopulationSimulation.MONTHS_PER_YEAR);
+        long elders = 0;
+        for (int age = firstMerging; age <= elderBucket; age++) {
+            elders += counts[age];
+        }
+        if (firstMerging > 0) {
+            System.arraycopy(counts, 0, counts, PopulationSimulation.MONTHS_PER_YEAR, firstMerging);
+        }
+        Arrays.fill(counts, 0, Math.min(PopulationSimulation.MONTHS_PER_YEAR, elderBucket), 0L);
+        counts[elderBucket] = elders;
+    }
+
+    private long calculateBreedingPopulation() {
+        long adults = 0;
+        for (int age = reproductionAge; age < counts.length; age++) {
+            adults += counts[age];
+        }
+        return (long) (adults * PopulationSimulation.FEMALE_RATIO);
+    }
+
+    private long calculateNewOffspring(long breedingFemales, double survivalRate) {
+        if (breedingFemales <= 0) return 0;
+
+        long litters = RandomDraws.binomial(random, breedingFemales, PopulationSimulation.BREEDING_PROBABILITY);
+        long totalOffspring;
+        if (litters <= 64) {
+            totalOffspring = 0;
+            for (long i = 0; i < litters; i++) {
+                double variation = 0.8 + random.nextDouble() * 0.4;
+                totalOffspring += (long) (speciesProfile.getAvgLitterSize() * variation);
+            }
+        } else {
+            // Sum of many litters is normal around litters * mean
+            // Math.round saturates at Long.MAX_VALUE instead of wrapping
+            double deviation = Math.sqrt(litters * litterVariance);
+            totalOffspring = Math.max(0, Math.round(litters * litterMean + deviation * random.nextGaussian()));
+        }
+
+        return (long) (totalOffspring * survivalRate);
+    }
+
+    private long applyAnnualMortality(double survivalRate) {
+        double juvenileSurvival = survivalRate * PopulationSimulation.JUVENILE_SURVIVAL_FACTOR;
+        double elderSurvival = survivalRate * PopulationSimulation.ELDER_SURVIVAL_FACTOR;
+        int elderBucket = counts.length - 1;
+
+        long survivors = 0;
+        for (int age = 0; age < counts.length; age++) {
+            if (counts[age] == 0) continue;
+            double rate;
+            if (age < reproductionAge) {
+                rate = juvenileSurvival;
+            } else if (age == elderBucket) {
+                rate = elderSurvival;
+            } else {
+                rate = survivalRate;
+            }
+            counts[age] = RandomDraws.binomial(random, counts[age], rate);
+            survivors += counts[age];
+        }
+        return survivors;
+    }
+}
@@ -0,0 +1,112 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Several species stepped in lockstep, each as its own cohort state, with
+ * interaction terms that set every species' survival rate for the year from
+ * the abundances of all species at the start of that year.
+ *
+ * Within a year the species are updated concurrently. Every species reads
+ * the same start-of-year abundances and draws from its own generator split
+ * from the community seed, so results do not depend on the worker count.
+ * Species are not reseeded when they die out.
+ */
+public class CommunitySimulation {
+    private final List<SpeciesProfile> species = new ArrayList<>();
+    private final List<Long> initialPopulations = new ArrayList<>();
+    private final List<List<InteractionTerm>> interactions = new ArrayList<>();
+    private final int simulationYears;
+    private final long seed;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    // histories[species][year]
+    private long[][] histories = new long[0][];
+
+    public CommunitySimulation(int simulationYears, long seed) {
+        if (simulationYears < 1) {
+            throw new IllegalArgumentException("Simulate at least one year");
+        }
+        this.simulationYears = simulationYears;
+        this.seed = seed;
+    }
+
+    /** Adds a species and returns its index, used by interaction terms. */
+    public int addSpecies(SpeciesProfile profile, long initialPopulation) {
+        if (profile.getReproductionAge() < 1) {
+            throw new IllegalArgumentException("Reproduction age must be at least 1 month");
+        }
+        species.add(profile);
+        initialPopulations.add(initialPopulation);
+        interactions.add(new ArrayList<>());
+        return species.size() - 1;
+    }
+
+    /** Makes {@code target}'s survival depend on the community through {@code term}. */
+    public void addInteraction(int target, InteractionTerm term) {
+        interactions.get(target).add(term);
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public void run() {
+        int count = species.size();
+        if (count == 0) {
+            throw new IllegalStateException("Add at least one species before running");
+        }
+        long[] seeds = RandomDraws.splitSeeds(seed, count);
+        CohortEngine[] engines = new CohortEngine[count];
+        long[] abundances = new long[count];
+        histories = new long[count][simulationYears + 1];
+        for (int i = 0; i < count; i++) {
+            engines[i] = new CohortEngine(species.get(i), new SplittableRandom(seeds[i]), false,
+                    DensityDependence.NONE);
+            engines[i].initialize(initialPopulations.get(i));
+            abundances[i] = engines[i].getPopulation();
+            histories[i][0] = abundances[i];
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int year = 1; year <= simulationYears; year++) {
+                int recordYear = year;
+                pool.invoke(new RangeTask(0, count, 1, i -> {
+                    double survival = species.get(i).getSurvivalRate();
+                    for (InteractionTerm term : interactions.get(i)) {
+                        survival *= term.survivalFactor(abundances);
+                    }
+                    engines[i].setSurvivalRate(Math.max(0, Math.min(1, survival)));
+                    histories[i][recordYear] = engines[i].step();
+                }));
+                // Abundances change only between years, after every species has stepped
+                for (int i = 0; i < count; i++) {
+                    abundances[i] = histories[i][year];
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public int getSpeciesCount() { return species.size(); }
+    public SpeciesProfile getSpecies(int index) { return species.get(index); }
+    public int getSimulationYears() { return simulationYears; }
+    public long getSeed() { return seed; }
+
+    public List<Long> getPopulationHistory(int index) {
+        List<Long> history = new ArrayList<>(histories[index].length);
+        for (long population : histories[index]) {
+            history.add(population);
+        }
+        return history;
+    }
+
+    public long getFinalPopulation(int index) {
+        return histories[index][histories[index].length - 1];
+    }
+}
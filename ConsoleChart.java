@@ -4,14 +4,14 @@ public class ConsoleChart {
     private static int defaultWidth = 60;
     private static int defaultHeight = 20;
 
-    public static void display(List<Integer> data, String title) {
+    public static void display(List<? extends Number> data, String title) {
         if (data == null || data.isEmpty()) {
             System.out.println("No data to display");
             return;
         }
 
         // Calculate scaling factors
-        int maxValue = data.stream().max(Integer::compare).orElse(1);
+        long maxValue = data.stream().mapToLong(Number::longValue).max().orElse(1);
         double scale = (double) maxValue / defaultHeight;
         
         System.out.println("\n" + title + " Population Growth");
@@ -19,11 +19,11 @@ public class ConsoleChart {
         
         // Print Y-axis scale
         for (int y = defaultHeight; y >= 0; y--) {
-            int threshold = (int)(y * scale);
+            long threshold = (long)(y * scale);
             System.out.printf("%6d │ ", threshold);
             
             // Calculate how much of the bar to show
-            double valuePercentage = (double)data.get(Math.min(data.size()-1, defaultWidth-1)) / maxValue;
+            double valuePercentage = data.get(Math.min(data.size()-1, defaultWidth-1)).doubleValue() / maxValue;
             int barWidth = (int)(defaultWidth * valuePercentage);
             
             // Ensure we don't try to print negative width
@@ -36,6 +36,20 @@ public class ConsoleChart {
         System.out.printf("%8d%"+ (defaultWidth-1) +"d%n", 0, data.size()-1);
     }
 
+    // Prints a progress row roughly every tenth of the run while it is still computing
+    public static SimulationListener progressListener(String title, int totalYears) {
+        int interval = Math.max(1, totalYears / 10);
+        return snapshot -> {
+            int year = snapshot.getYear();
+            if (year == 0 || (year % interval != 0 && year != totalYears)) {
+                return;
+            }
+            int filled = (int)((long) defaultWidth * year / totalYears);
+            System.out.printf("%s %s%s %3d%% | %s%n", title, "█".repeat(filled), "░".repeat(defaultWidth - filled),
+                              year * 100 / totalYears, snapshot);
+        };
+    }
+
     public static int getDefaultWidth() {
         return defaultWidth;
     }
@@ -0,0 +1,118 @@
+import java.io.Serializable;
+import java.util.Locale;
+
+/**
+ * Density-dependent regulation of a population around a carrying capacity K.
+ *
+ * Each year the engines multiply the survival rate by a factor computed from
+ * the population at the start of the year. Survival enters both adult
+ * mortality and offspring survival, so the factor scales the whole yearly
+ * projection and the growth rate becomes factor x lambda, where lambda is the
+ * profile's unregulated growth rate. Both models are calibrated so the
+ * factor is 1 for an empty habitat and 1/lambda at K, which makes K the
+ * expected steady state:
+ *
+ * LOGISTIC:      factor = 1 - (1 - 1/lambda) * N/K  (falls linearly, can overshoot and cycle)
+ * BEVERTON_HOLT: factor = 1 / (1 + (lambda - 1) * N/K)  (approaches K without overshooting)
+ *
+ * Populations whose lambda is at most 1 decline anyway and are not regulated.
+ */
+public class DensityDependence implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Model {
+        NONE("Unlimited growth"),
+        LOGISTIC("Logistic"),
+        BEVERTON_HOLT("Beverton-Holt");
+
+        private final String description;
+
+        Model(String description) {
+            this.description = description;
+        }
+
+        public String getDescription() { return description; }
+    }
+
+    public static final DensityDependence NONE = new DensityDependence(Model.NONE, 0, 1, null);
+
+    private final Model model;
+    private final long carryingCapacity;
+    // Unregulated growth rate of boundProfile; 1 until the model is bound to a profile
+    private final double lambda;
+    private final transient SpeciesProfile boundProfile;
+
+    private DensityDependence(Model model, long carryingCapacity, double lambda, SpeciesProfile boundProfile) {
+        this.model = model;
+        this.carryingCapacity = carryingCapacity;
+        this.lambda = lambda;
+        this.boundProfile = boundProfile;
+    }
+
+    public static DensityDependence of(Model model, long carryingCapacity) {
+        if (model == Model.NONE) {
+            return NONE;
+        }
+        if (carryingCapacity < 1) {
+            throw new IllegalArgumentException("Carrying capacity must be at least 1");
+        }
+        return new DensityDependence(model, carryingCapacity, 1, null);
+    }
+
+    public static DensityDependence logistic(long carryingCapacity) {
+        return of(Model.LOGISTIC, carryingCapacity);
+    }
+
+    public static DensityDependence bevertonHolt(long carryingCapacity) {
+        return of(Model.BEVERTON_HOLT, carryingCapacity);
+    }
+
+    /** Parses a model name as typed on a command line: logistic, beverton-holt or none. */
+    public static Model parseModel(String name) {
+        return Model.valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+
+    /**
+     * Returns this model calibrated to the profile's unregulated growth rate.
+     * Engines call this once when they are built; binding an already bound
+     * model to the same profile returns it unchanged.
+     */
+    public DensityDependence forProfile(SpeciesProfile profile) {
+        if (model == Model.NONE || boundProfile == profile) {
+            return this;
+        }
+        double growth = new LeslieProjection(profile).dominantEigenvalue();
+        return new DensityDependence(model, carryingCapacity, growth, profile);
+    }
+
+    /** Calibrates to the growth rate of an engine whose rules differ from the yearly projection. */
+    DensityDependence forGrowthRate(double growth) {
+        if (model == Model.NONE) {
+            return this;
+        }
+        return new DensityDependence(model, carryingCapacity, growth, null);
+    }
+
+    /** Survival multiplier for a population of the given size; needs a bound model. */
+    public double factor(long population) {
+        if (model == Model.NONE || lambda <= 1) {
+            return 1;
+        }
+        double density = (double) population / carryingCapacity;
+        return switch (model) {
+            case LOGISTIC -> Math.max(0, 1 - (1 - 1 / lambda) * density);
+            case BEVERTON_HOLT -> 1 / (1 + (lambda - 1) * density);
+            case NONE -> 1;
+        };
+    }
+
+    public Model getModel() { return model; }
+    public long getCarryingCapacity() { return carryingCapacity; }
+    public boolean isEnabled() { return model != Model.NONE; }
+
+    @Override
+    public String toString() {
+        return model == Model.NONE ? model.getDescription()
+                : String.format("%s, K = %,d", model.getDescription(), carryingCapacity);
+    }
+}
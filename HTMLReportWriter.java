@@ -0,0 +1,302 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams a self-contained HTML report that overlays any number of runs and
+ * percentile bands in one chart. Each series is decimated and written as
+ * soon as it is added, so memory stays constant however many runs a report
+ * holds. The chart is inline SVG with no scripts or external assets, so the
+ * file renders offline, and it uses the current HTMLChartGenerator theme.
+ *
+ * Series are drawn in data units inside a group that is only scaled onto the
+ * axes when the report is closed, which is why the value range does not have
+ * to be known up front.
+ */
+public class HTMLReportWriter implements Closeable {
+    private static final int WIDTH = 800;
+    private static final int HEIGHT = 400;
+    private static final int LEFT = 80;
+    private static final int RIGHT = 20;
+    private static final int TOP = 20;
+    private static final int BOTTOM = 50;
+    // The plot is 700px wide, so more points than this cannot be told apart
+    private static final int MAX_POINTS = 800;
+    // Runs past this many are summarised as "+ n more" instead of listed
+    private static final int MAX_LEGEND_ENTRIES = 12;
+    private static final String[] PALETTE = {
+            "rgb(255, 99, 132)", "rgb(255, 159, 64)", "rgb(153, 102, 255)",
+            "rgb(75, 192, 192)", "rgb(201, 203, 207)", "rgb(255, 205, 86)"};
+
+    private final Writer out;
+    private final boolean logScale;
+    private final List<String[]> legend = new ArrayList<>(); // label, color, kind
+    private int series;
+    private int unlisted;
+    private int maxYear;
+    private double maxValue;
+    private boolean closed;
+
+    public HTMLReportWriter(Writer out, String title) throws IOException {
+        this(out, title, false);
+    }
+
+    /** Writes the page header; with logScale the population axis is log10. */
+    public HTMLReportWriter(Writer out, String title, boolean logScale) throws IOException {
+        this.out = out;
+        this.logScale = logScale;
+        String text = escape(title);
+        out.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n");
+        out.write("<title>" + text + " Population</title>\n");
+        out.write("<style>\n");
+        out.write("body { font-family: Arial, sans-serif; margin: 20px; background: "
+                + HTMLChartGenerator.backgroundColor() + "; color: " + HTMLChartGenerator.textColor() + "; }\n");
+        out.write("svg text { fill: " + HTMLChartGenerator.textColor() + "; font-size: 12px; }\n");
+        out.write(".legend { list-style: none; padding: 0; }\n");
+        out.write(".legend li { display: inline-block; margin-right: 16px; }\n");
+        out.write(".legend span { display: inline-block; width: 14px; height: 14px; margin-right: 4px;"
+                + " vertical-align: middle; }\n");
+        out.write("</style>\n</head>\n<body>\n");
+        out.write("<h1>" + text + " Population Growth</h1>\n");
+        out.write("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + WIDTH + "\" height=\"" + HEIGHT
+                + "\" viewBox=\"0 0 " + WIDTH + " " + HEIGHT + "\">\n");
+        out.write("<defs>\n<g id=\"series\" fill=\"none\" stroke-width=\"1.5\" stroke-linejoin=\"round\">\n");
+    }
+
+    /** Adds one run as a line; history[year] is the population in that year. */
+    public void addRun(String label, List<? extends Number> history) throws IOException {
+        String color = series == 0 ? HTMLChartGenerator.chartColor() : PALETTE[(series - 1) % PALETTE.length];
+        addLine(label, history, color);
+    }
+
+    public void addRun(String label, double[] history) throws IOException {
+        addRun(label, asList(history));
+    }
+
+    /** Adds a shaded band between lower[year] and upper[year], such as the 5th to 95th percentile. */
+    public void addBand(String label, List<? extends Number> lower, List<? extends Number> upper)
+            throws IOException {
+        checkOpen();
+        if (lower.size() != upper.size()) {
+            throw new IllegalArgumentException("Band bounds must cover the same years");
+        }
+        if (upper.isEmpty()) {
+            return;
+        }
+        int[] points = ChartDecimator.selectIndices(upper, MAX_POINTS);
+        track(lower);
+        track(upper);
+        String color = HTMLChartGenerator.chartColor();
+        out.write("<path fill=\"" + color + "\" fill-opacity=\"0.2\" stroke=\"none\" d=\"");
+        // Along the upper bound, then back along the lower bound
+        for (int i = 0; i < points.length; i++) {
+            out.write(i == 0 ? "M" : " L");
+            writePoint(points[i], upper.get(points[i]));
+        }
+        for (int i = points.length - 1; i >= 0; i--) {
+            out.write(" L");
+            writePoint(points[i], lower.get(points[i]));
+        }
+        out.write(" Z\"/>\n");
+        addLegend(label, color, "band");
+    }
+
+    public void addBand(String label, double[] lower, double[] upper) throws IOException {
+        addBand(label, asList(lower), asList(upper));
+    }
+
+    private void addLine(String label, List<? extends Number> values, String color) throws IOException {
+        checkOpen();
+        if (values.isEmpty()) {
+            return;
+        }
+        int[] points = ChartDecimator.selectIndices(values, MAX_POINTS);
+        track(values);
+        out.write("<path stroke=\"" + color + "\" vector-effect=\"non-scaling-stroke\" d=\"");
+        for (int i = 0; i < points.length; i++) {
+            out.write(i == 0 ? "M" : " L");
+            writePoint(points[i], values.get(points[i]));
+        }
+        out.write("\"/>\n");
+        series++;
+        addLegend(label, color, "line");
+    }
+
+    /** Scales the series onto the axes, writes the legend and ends the page. Does not close the Writer. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        out.write("</g>\n</defs>\n");
+
+        int plotWidth = WIDTH - LEFT - RIGHT;
+        int plotHeight = HEIGHT - TOP - BOTTOM;
+        int years = Math.max(maxYear, 1);
+        double top = axisTop();
+        String grid = HTMLChartGenerator.gridColor();
+
+        for (double tick : valueTicks(top)) {
+            double y = TOP + plotHeight - tick / top * plotHeight;
+            out.write(String.format(Locale.ROOT,
+                    "<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"%s\"/>%n",
+                    LEFT, y, LEFT + plotWidth, y, grid));
+            out.write(String.format(Locale.ROOT,
+                    "<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%s</text>%n",
+                    LEFT - 6, y + 4, axisLabel(logScale ? Math.pow(10, tick) : tick)));
+        }
+        int yearStep = (int) Math.max(1, niceStep(years / 10.0));
+        for (int year = 0; year <= years; year += yearStep) {
+            double x = LEFT + (double) year / years * plotWidth;
+            out.write(String.format(Locale.ROOT,
+                    "<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%d</text>%n",
+                    x, TOP + plotHeight + 18, year));
+        }
+        out.write(String.format(Locale.ROOT,
+                "<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"none\" stroke=\"%s\"/>%n",
+                LEFT, TOP, plotWidth, plotHeight, grid));
+        out.write(String.format(Locale.ROOT,
+                "<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">Year</text>%n",
+                LEFT + plotWidth / 2, HEIGHT - 8));
+        out.write(String.format(Locale.ROOT,
+                "<text x=\"14\" y=\"%d\" text-anchor=\"middle\" transform=\"rotate(-90 14 %d)\">%s</text>%n",
+                TOP + plotHeight / 2, TOP + plotHeight / 2, logScale ? "Population (log)" : "Population"));
+
+        // Year 0 at the left edge, the axis top at the top edge; y is flipped
+        out.write(String.format(Locale.ROOT,
+                "<use href=\"#series\" transform=\"matrix(%s 0 0 %s %d %d)\"/>%n",
+                number((double) plotWidth / years), number(-plotHeight / top), LEFT, TOP + plotHeight));
+        out.write("</svg>\n");
+
+        if (!legend.isEmpty()) {
+            out.write("<ul class=\"legend\">\n");
+            for (String[] entry : legend) {
+                String shape = entry[2].equals("band") ? "opacity: 0.3;" : "height: 3px;";
+                out.write("<li><span style=\"background: " + entry[1] + "; " + shape + "\"></span>"
+                        + escape(entry[0]) + "</li>\n");
+            }
+            if (unlisted > 0) {
+                out.write("<li>+ " + unlisted + " more</li>\n");
+            }
+            out.write("</ul>\n");
+        }
+        out.write("</body>\n</html>\n");
+        out.flush();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Report already closed");
+        }
+    }
+
+    private void track(List<? extends Number> values) {
+        maxYear = Math.max(maxYear, values.size() - 1);
+        for (Number value : values) {
+            maxValue = Math.max(maxValue, scaled(value.doubleValue()));
+        }
+    }
+
+    private void addLegend(String label, String color, String kind) {
+        if (legend.size() < MAX_LEGEND_ENTRIES) {
+            legend.add(new String[] {label, color, kind});
+        } else {
+            unlisted++;
+        }
+    }
+
+    private void writePoint(int year, Number value) throws IOException {
+        out.write(Integer.toString(year));
+        out.write(' ');
+        double y = scaled(value.doubleValue());
+        // A ten-thousandth of a decade is far below one pixel
+        out.write(number(logScale ? Math.round(y * 1e4) / 1e4 : y));
+    }
+
+    // Log scale counts decades from 1, so an extinct run sits on the axis
+    private double scaled(double value) {
+        if (logScale) {
+            return value <= 1 ? 0 : Math.log10(value);
+        }
+        return Math.max(value, 0);
+    }
+
+    private double axisTop() {
+        if (maxValue <= 0) {
+            return 1;
+        }
+        if (logScale) {
+            return Math.ceil(maxValue);
+        }
+        double step = niceStep(maxValue / 5);
+        return Math.ceil(maxValue / step) * step;
+    }
+
+    private List<Double> valueTicks(double top) {
+        double step = logScale ? Math.max(1, Math.ceil(top / 8)) : niceStep(top / 5);
+        List<Double> ticks = new ArrayList<>();
+        for (int i = 0; i * step <= top * (1 + 1e-9); i++) {
+            ticks.add(i * step);
+        }
+        return ticks;
+    }
+
+    // 1, 2 or 5 times a power of ten, at least rough
+    private static double niceStep(double rough) {
+        if (rough <= 0) {
+            return 1;
+        }
+        double magnitude = Math.pow(10, Math.floor(Math.log10(rough)));
+        double fraction = rough / magnitude;
+        return (fraction <= 1 ? 1 : fraction <= 2 ? 2 : fraction <= 5 ? 5 : 10) * magnitude;
+    }
+
+    // 1.5K, 20M, 3B, 1T; larger values as 1e15, 2.5e17, ...
+    private static String axisLabel(double value) {
+        String[] suffixes = {"", "K", "M", "B", "T"};
+        if (value >= 1e15) {
+            int exponent = (int) Math.floor(Math.log10(value));
+            return shortNumber(value / Math.pow(10, exponent)) + "e" + exponent;
+        }
+        int index = 0;
+        while (value >= 1000 && index < suffixes.length - 1) {
+            value /= 1000;
+            index++;
+        }
+        return shortNumber(value) + suffixes[index];
+    }
+
+    private static String shortNumber(double value) {
+        double rounded = Math.round(value * 10) / 10.0;
+        return rounded == Math.rint(rounded)
+                ? Long.toString((long) rounded)
+                : String.format(Locale.ROOT, "%.1f", rounded);
+    }
+
+    // Shortest form that SVG accepts; whole numbers without a fraction
+    private static String number(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    private static List<Double> asList(double[] values) {
+        return new AbstractList<>() {
+            @Override
+            public Double get(int index) { return values[index]; }
+
+            @Override
+            public int size() { return values.length; }
+        };
+    }
+}
@@ -0,0 +1,172 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Per-animal engine: one age in months per animal, kept in a single primitive
+ * buffer that is reused for the whole run. Mortality compacts survivors in
+ * place, so a steady-state year allocates nothing.
+ */
+public class IndividualEngine implements PopulationEngine {
+    private static final int INITIAL_CAPACITY = 16;
+    // One int per animal, with room for the copy made while the buffer grows
+    static final int POPULATION_LIMIT = (int) Math.min(Integer.MAX_VALUE - 8,
+            Runtime.getRuntime().maxMemory() / (Integer.BYTES * 3));
+
+    private final SpeciesProfile speciesProfile;
+    private final RandomGenerator random;
+    private final DensityDependence density;
+    private int[] ages;
+    private int size;
+    private int lastBirths;
+    private int lastDeaths;
+    private int lastBreeders;
+    private boolean limitReached;
+    private final boolean timed = SimulationMetrics.isEnabled();
+
+    public IndividualEngine(SpeciesProfile speciesProfile, RandomGenerator random) {
+        this(speciesProfile, random, DensityDependence.NONE);
+    }
+
+    public IndividualEngine(SpeciesProfile speciesProfile, RandomGenerator random, DensityDependence density) {
+        this.speciesProfile = speciesProfile;
+        this.random = random;
+        this.density = density.forProfile(speciesProfile);
+        this.ages = new int[INITIAL_CAPACITY];
+    }
+
+    @Override
+    public void initialize(long initialPopulation) {
+        if (initialPopulation > POPULATION_LIMIT) {
+            throw new IllegalArgumentException(String.format(
+                    "Initial population %,d is above the per-individual limit of %,d; use the cohort engine",
+                    initialPopulation, POPULATION_LIMIT));
+        }
+        int count = (int) initialPopulation;
+        ensureCapacity(count);
+        // Initialize with mixed-age population (some adults)
+        for (int i = 0; i < count; i++) {
+            // Random age between 0 and 2*reproduction age
+            ages[i] = (int)(random.nextDouble() * speciesProfile.getReproductionAge() * 2);
+        }
+        size = count;
+    }
+
+    @Override
+    public long step() {
+        long mark = timed ? System.nanoTime() : 0;
+        // Density acts on the population the year starts with
+        double survivalRate = speciesProfile.getSurvivalRate() * density.factor(size);
+        // Age all animals by 12 months
+        PopulationKernels.ageAll(ages, size, PopulationSimulation.MONTHS_PER_YEAR);
+        mark = SimulationMetrics.lap(timed, SimulationMetrics.Phase.AGING, mark);
+
+        int breedingFemales = calculateBreedingPopulation();
+        long offspring = calculateNewOffspring(breedingFemales, survivalRate);
+        mark = SimulationMetrics.lap(timed, SimulationMetrics.Phase.BREEDING, mark);
+
+        int before = size;
+        applyAnnualMortality(survivalRate);
+        lastDeaths = before - size;
+        mark = SimulationMetrics.lap(timed, SimulationMetrics.Phase.MORTALITY, mark);
+
+        int newOffspring = (int) Math.min(offspring, POPULATION_LIMIT - size);
+        if (newOffspring < offspring) {
+            limitReached = true;
+        }
+        lastBirths = newOffspring;
+        lastBreeders = breedingFemales;
+
+        // Newborns have age 0
+        ensureCapacity(size + newOffspring);
+        Arrays.fill(ages, size, size + newOffspring, 0);
+        size += newOffspring;
+        int recorded = size;
+        SimulationMetrics.lap(timed, SimulationMetrics.Phase.OFFSPRING, mark);
+
+        // Prevent extinction
+        if (size <= 0) {
+            ages[size++] = speciesProfile.getReproductionAge(); // Add one mature individual
+        }
+        return recorded;
+    }
+
+    @Override
+    public long getPopulation() { return size; }
+
+    @Override
+    public long getLastBirths() { return lastBirths; }
+
+    @Override
+    public long getLastDeaths() { return lastDeaths; }
+
+    @Override
+    public long getLastBreeders() { return lastBreeders; }
+
+    @Override
+    public boolean isLimitReached() { return limitReached; }
+
+    // Animals are stored in buffer order, which decides the order of their survival draws
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeInt(ages[i]);
+        }
+        out.writeBoolean(limitReached);
+    }
+
+    @Override
+    public void restoreState(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > POPULATION_LIMIT) {
+            throw new IOException("Checkpoint population " + count + " is outside the per-individual limit");
+        }
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            ages[i] = in.readInt();
+        }
+        size = count;
+        limitReached = in.readBoolean();
+    }
+
+    private int calculateBreedingPopulation() {
+        int breedingFemales = PopulationKernels.countAtLeast(ages, size, speciesProfile.getReproductionAge());
+        return (int)(breedingFemales * PopulationSimulation.FEMALE_RATIO); // 50% are female
+    }
+
+    private long calculateNewOffspring(int breedingFemales, double survivalRate) {
+        if (breedingFemales <= 0) return 0;
+
+        long totalOffspring = 0;
+        for (int i = 0; i < breedingFemales; i++) {
+            if (random.nextDouble() < PopulationSimulation.BREEDING_PROBABILITY) {
+                // Litter size with variation
+                double variation = 0.8 + random.nextDouble() * 0.4;
+                totalOffspring += (int)(speciesProfile.getAvgLitterSize() * variation);
+            }
+        }
+
+        return (long)(totalOffspring * survivalRate);
+    }
+
+    private void applyAnnualMortality(double adultSurvival) {
+        int reproductionAge = speciesProfile.getReproductionAge();
+        int elderAge = reproductionAge * 3;
+        double juvenileSurvival = adultSurvival * PopulationSimulation.JUVENILE_SURVIVAL_FACTOR; // Higher juvenile mortality
+        double elderSurvival = adultSurvival * PopulationSimulation.ELDER_SURVIVAL_FACTOR; // Higher elder mortality
+
+        // Survivors are compacted towards the front of the buffer in place
+        size = PopulationKernels.compactSurvivors(ages, size, random, reproductionAge, elderAge,
+                juvenileSurvival, adultSurvival, elderSurvival);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required > ages.length) {
+            int capacity = Math.max(required, ages.length + (ages.length >> 1));
+            ages = Arrays.copyOf(ages, capacity);
+        }
+    }
+}
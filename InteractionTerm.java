@@ -0,0 +1,42 @@
+/**
+ * How the abundance of other species changes one species' survival rate in
+ * a {@link CommunitySimulation}. A term returns a factor that multiplies the
+ * target's survival rate for the coming year; factors of every term on the
+ * same species are multiplied together and the result is capped at 1.
+ *
+ * Abundances are the population of every species at the start of the year,
+ * indexed in the order the species were added.
+ */
+public interface InteractionTerm {
+    double survivalFactor(long[] abundances);
+
+    /** Prey survival falls exponentially with predator numbers: exp(-attackRate * predators). */
+    static InteractionTerm predation(int predator, double attackRate) {
+        if (attackRate < 0) {
+            throw new IllegalArgumentException("Attack rate must not be negative");
+        }
+        return abundances -> Math.exp(-attackRate * abundances[predator]);
+    }
+
+    /**
+     * Predator survival follows a saturating (Holling type II) response to
+     * prey: prey / (prey + halfSaturation).
+     */
+    static InteractionTerm foodLimitation(int prey, double halfSaturation) {
+        if (halfSaturation <= 0) {
+            throw new IllegalArgumentException("Half-saturation must be positive");
+        }
+        return abundances -> abundances[prey] / (abundances[prey] + halfSaturation);
+    }
+
+    /**
+     * Competition for a shared resource: survival is divided by
+     * 1 + coefficient * competitors / capacity.
+     */
+    static InteractionTerm competition(int competitor, double coefficient, double capacity) {
+        if (coefficient < 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Competition needs a non-negative coefficient and positive capacity");
+        }
+        return abundances -> 1 / (1 + coefficient * abundances[competitor] / capacity);
+    }
+}
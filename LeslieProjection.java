@@ -0,0 +1,171 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Deterministic expected-value engine. The stochastic rules reduce to a
+ * Leslie matrix over age-in-months classes: ages shift by 12 each year,
+ * survival scales each class (juvenile x0.7, elder x0.6), and the first row
+ * holds the fecundity of breeding ages (50% female x 80% breeding x mean
+ * litter x offspring survival). Each year is one matrix-vector product
+ * applied in its sparse form, so cost depends only on the number of age
+ * classes.
+ */
+public class LeslieProjection implements PopulationEngine {
+    private static final int MAX_POWER_ITERATIONS = 10_000;
+    private static final double EIGENVALUE_TOLERANCE = 1e-12;
+
+    private final int reproductionAge;
+    private final double[] survival;
+    private final double fecundity;
+    private final DensityDependence density;
+    private double[] expected;
+    private double[] scratch;
+    private double population;
+    private double lastBirths;
+    private double lastDeaths;
+    private double lastBreeders;
+
+    public LeslieProjection(SpeciesProfile speciesProfile) {
+        this(speciesProfile, DensityDependence.NONE);
+    }
+
+    public LeslieProjection(SpeciesProfile speciesProfile, DensityDependence density) {
+        this.reproductionAge = speciesProfile.getReproductionAge();
+        int classes = reproductionAge * 3 + 2; // last class holds every elder
+        this.survival = new double[classes];
+        double rate = speciesProfile.getSurvivalRate();
+        for (int age = 0; age < classes; age++) {
+            if (age < reproductionAge) {
+                survival[age] = rate * PopulationSimulation.JUVENILE_SURVIVAL_FACTOR;
+            } else if (age == classes - 1) {
+                survival[age] = rate * PopulationSimulation.ELDER_SURVIVAL_FACTOR;
+            } else {
+                survival[age] = rate;
+            }
+        }
+        this.fecundity = PopulationSimulation.FEMALE_RATIO * PopulationSimulation.BREEDING_PROBABILITY
+                * CohortEngine.litterMoments(speciesProfile.getAvgLitterSize())[0] * rate;
+        this.expected = new double[classes];
+        this.scratch = new double[classes];
+        // Bound last: binding builds an unregulated projection to find the growth rate
+        this.density = density.forProfile(speciesProfile);
+    }
+
+    @Override
+    public void initialize(long initialPopulation) {
+        // Initial ages are uniform over 0 .. 2*reproductionAge-1 months
+        Arrays.fill(expected, 0);
+        int ageSpan = reproductionAge * 2;
+        for (int age = 0; age < ageSpan; age++) {
+            expected[age] = (double) initialPopulation / ageSpan;
+        }
+        population = initialPopulation;
+    }
+
+    @Override
+    public long step() {
+        double before = population;
+        lastBreeders = project(expected, scratch, density.factor(Math.round(population)));
+        double[] swap = expected;
+        expected = scratch;
+        scratch = swap;
+
+        lastBirths = expected[0];
+        population = 0;
+        for (double count : expected) {
+            population += count;
+        }
+        lastDeaths = before + lastBirths - population;
+        return Math.round(population);
+    }
+
+    /**
+     * Dominant eigenvalue of the projection matrix: the factor the expected
+     * population is multiplied by each year once the age structure has settled.
+     */
+    public double dominantEigenvalue() {
+        double[] vector = new double[survival.length];
+        double[] next = new double[survival.length];
+        Arrays.fill(vector, 1.0 / vector.length);
+        double eigenvalue = 0;
+
+        for (int i = 0; i < MAX_POWER_ITERATIONS; i++) {
+            project(vector, next, 1);
+            double norm = 0;
+            for (double value : next) {
+                norm += value;
+            }
+            if (norm == 0) {
+                return 0;
+            }
+            for (int age = 0; age < next.length; age++) {
+                vector[age] = next[age] / norm;
+            }
+            if (Math.abs(norm - eigenvalue) <= EIGENVALUE_TOLERANCE * norm) {
+                return norm;
+            }
+            eigenvalue = norm;
+        }
+        return eigenvalue;
+    }
+
+    @Override
+    public long getPopulation() { return Math.round(population); }
+
+    @Override
+    public long getLastBirths() { return Math.round(lastBirths); }
+
+    @Override
+    public long getLastDeaths() { return Math.round(lastDeaths); }
+
+    @Override
+    public long getLastBreeders() { return Math.round(lastBreeders); }
+
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeInt(expected.length);
+        for (double count : expected) {
+            out.writeDouble(count);
+        }
+    }
+
+    @Override
+    public void restoreState(DataInput in) throws IOException {
+        int classes = in.readInt();
+        if (classes != expected.length) {
+            throw new IOException("Checkpoint has " + classes + " age classes, expected " + expected.length);
+        }
+        population = 0;
+        for (int age = 0; age < classes; age++) {
+            expected[age] = in.readDouble();
+            population += expected[age];
+        }
+    }
+
+    // target = factor * A * source; returns the expected number of breeding females
+    private double project(double[] source, double[] target, double factor) {
+        int elder = source.length - 1;
+        int months = PopulationSimulation.MONTHS_PER_YEAR;
+
+        // Aging: shift by 12 months, everything past the last class merges into it
+        Arrays.fill(target, 0);
+        for (int age = 0; age < source.length; age++) {
+            target[Math.min(age + months, elder)] += source[age];
+        }
+
+        double adults = 0;
+        for (int age = reproductionAge; age <= elder; age++) {
+            adults += target[age];
+        }
+        double breedingFemales = adults * PopulationSimulation.FEMALE_RATIO;
+
+        for (int age = 0; age <= elder; age++) {
+            target[age] *= survival[age] * factor;
+        }
+        // Newborns join after mortality, as in the stochastic engines
+        target[0] += adults * fecundity * factor;
+        return breedingFemales;
+    }
+}
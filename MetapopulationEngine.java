@@ -0,0 +1,259 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Many habitat patches, each an age-structured cohort state following the
+ * same SpeciesProfile rules as {@link CohortEngine}, linked by a sparse
+ * migration matrix.
+ *
+ * A year runs the demographic step of every patch in parallel, then moves
+ * migrants one age bucket at a time: sources draw their emigrants per
+ * outgoing edge, then destinations collect along their incoming edges. Each
+ * patch draws only from its own generator, split from the engine seed, so
+ * results do not depend on the number of worker threads. Empty patches stay
+ * empty until migrants recolonize them.
+ *
+ * Each patch is capped at an equal share of {@link CohortEngine#POPULATION_LIMIT},
+ * births and arriving migrants alike, so the total never exceeds the limit
+ * and every sum over patches stays inside a long. Migration conserves
+ * animals except where it would push a patch past its cap.
+ */
+public class MetapopulationEngine implements PopulationEngine, AutoCloseable {
+    // Patches handled by one task before it stops splitting
+    private static final int PATCHES_PER_TASK = 256;
+
+    private final MigrationMatrix migration;
+    private final CohortEngine[] patches;
+    private final ResumableRandom[] randoms;
+    private final int ageBuckets;
+    // Animals moving along each edge for the age bucket being migrated
+    private final long[] flows;
+    private final ForkJoinPool pool;
+    private long population;
+    private long lastBirths;
+    private long lastDeaths;
+    private long lastBreeders;
+    private long lastMigrants;
+    // Set by immigrate() on worker threads when arrivals had to be turned away
+    private volatile boolean migrationLimitReached;
+
+    public MetapopulationEngine(SpeciesProfile speciesProfile, MigrationMatrix migration, long seed) {
+        this(speciesProfile, migration, seed, Runtime.getRuntime().availableProcessors());
+    }
+
+    public MetapopulationEngine(SpeciesProfile speciesProfile, MigrationMatrix migration, long seed,
+                                int parallelism) {
+        this(speciesProfile, migration, seed, parallelism, DensityDependence.NONE);
+    }
+
+    /** As above, with every patch regulated around its own carrying capacity. */
+    public MetapopulationEngine(SpeciesProfile speciesProfile, MigrationMatrix migration, long seed,
+                                int parallelism, DensityDependence patchDensity) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        if (speciesProfile.getReproductionAge() < 1) {
+            throw new IllegalArgumentException("Reproduction age must be at least 1 month");
+        }
+        int count = migration.getPatches();
+        long[] seeds = RandomDraws.splitSeeds(seed, count);
+        DensityDependence density = patchDensity.forProfile(speciesProfile);
+        long patchLimit = CohortEngine.POPULATION_LIMIT / count;
+        this.migration = migration;
+        this.patches = new CohortEngine[count];
+        this.randoms = new ResumableRandom[count];
+        for (int p = 0; p < count; p++) {
+            randoms[p] = new ResumableRandom(seeds[p]);
+            patches[p] = new CohortEngine(speciesProfile, randoms[p], false, density, patchLimit);
+        }
+        this.ageBuckets = patches[0].getAgeBuckets();
+        this.flows = new long[migration.getEdges()];
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /** Spreads the animals as evenly as possible over all patches. */
+    @Override
+    public void initialize(long initialPopulation) {
+        long[] perPatch = new long[patches.length];
+        for (int p = 0; p < perPatch.length; p++) {
+            perPatch[p] = initialPopulation / perPatch.length + (p < initialPopulation % perPatch.length ? 1 : 0);
+        }
+        initialize(perPatch);
+    }
+
+    public void initialize(long[] perPatch) {
+        if (perPatch.length != patches.length) {
+            throw new IllegalArgumentException("Expected " + patches.length + " patch populations");
+        }
+        for (long count : perPatch) {
+            if (count < 0 || count > patches[0].getPopulationLimit()) {
+                throw new IllegalArgumentException("Patch populations must be between 0 and "
+                        + patches[0].getPopulationLimit());
+            }
+        }
+        parallel(p -> patches[p].initialize(perPatch[p]));
+        long total = 0;
+        for (long count : perPatch) {
+            total += count;
+        }
+        population = total;
+    }
+
+    @Override
+    public long step() {
+        parallel(p -> patches[p].step());
+
+        long births = 0;
+        long deaths = 0;
+        long breeders = 0;
+        for (CohortEngine patch : patches) {
+            births += patch.getLastBirths();
+            deaths += patch.getLastDeaths();
+            breeders += patch.getLastBreeders();
+        }
+        lastBirths = births;
+        lastDeaths = deaths;
+        lastBreeders = breeders;
+
+        lastMigrants = migration.getEdges() > 0 ? migrate() : 0;
+
+        long total = 0;
+        for (CohortEngine patch : patches) {
+            total += patch.getPopulation();
+        }
+        population = total;
+        return total;
+    }
+
+    private long migrate() {
+        long migrants = 0;
+        for (int age = 0; age < ageBuckets; age++) {
+            int bucket = age;
+            parallel(p -> emigrate(p, bucket));
+            parallel(p -> immigrate(p, bucket));
+            for (long flow : flows) {
+                migrants += flow;
+            }
+        }
+        return migrants;
+    }
+
+    // Draws how many animals of this age leave the patch, then splits them over its edges
+    private void emigrate(int patch, int age) {
+        int start = migration.outStart(patch);
+        int end = migration.outEnd(patch);
+        long resident = patches[patch].getCount(age);
+        if (resident == 0 || start == end) {
+            for (int edge = start; edge < end; edge++) {
+                flows[edge] = 0;
+            }
+            return;
+        }
+        ResumableRandom random = randoms[patch];
+        long leaving = RandomDraws.binomial(random, resident, migration.totalRate(patch));
+        patches[patch].addCount(age, -leaving);
+        double rateLeft = migration.totalRate(patch);
+        for (int edge = start; edge < end; edge++) {
+            long moved;
+            if (edge == end - 1 || leaving == 0) {
+                moved = leaving;
+            } else {
+                double share = rateLeft > 0 ? Math.min(1, migration.rate(edge) / rateLeft) : 0;
+                moved = RandomDraws.binomial(random, leaving, share);
+            }
+            flows[edge] = moved;
+            leaving -= moved;
+            rateLeft -= migration.rate(edge);
+        }
+    }
+
+    private void immigrate(int patch, int age) {
+        long arriving = 0;
+        for (int i = migration.inStart(patch); i < migration.inEnd(patch); i++) {
+            arriving += flows[migration.incomingEdge(i)];
+        }
+        CohortEngine engine = patches[patch];
+        long room = engine.getPopulationLimit() - engine.getPopulation();
+        if (arriving > room) {
+            arriving = room;
+            migrationLimitReached = true;
+        }
+        if (arriving > 0) {
+            engine.addCount(age, arriving);
+        }
+    }
+
+    private void parallel(RangeTask.IndexAction action) {
+        pool.invoke(new RangeTask(0, patches.length, PATCHES_PER_TASK, action));
+    }
+
+    @Override
+    public long getPopulation() { return population; }
+
+    @Override
+    public long getLastBirths() { return lastBirths; }
+
+    @Override
+    public long getLastDeaths() { return lastDeaths; }
+
+    @Override
+    public long getLastBreeders() { return lastBreeders; }
+
+    @Override
+    public boolean isLimitReached() {
+        if (migrationLimitReached) return true;
+        for (CohortEngine patch : patches) {
+            if (patch.isLimitReached()) return true;
+        }
+        return false;
+    }
+
+    // Each patch's cohort state is followed by its generator, so a resumed run draws the same migrants
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeInt(patches.length);
+        for (int p = 0; p < patches.length; p++) {
+            patches[p].saveState(out);
+            out.writeLong(randoms[p].getState());
+        }
+        out.writeBoolean(migrationLimitReached);
+    }
+
+    @Override
+    public void restoreState(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count != patches.length) {
+            throw new IOException("Checkpoint has " + count + " patches, expected " + patches.length);
+        }
+        long total = 0;
+        for (int p = 0; p < count; p++) {
+            patches[p].restoreState(in);
+            randoms[p].setState(in.readLong());
+            total += patches[p].getPopulation();
+        }
+        population = total;
+        migrationLimitReached = in.readBoolean();
+    }
+
+    /** Animals that changed patch in the most recent year. */
+    public long getLastMigrants() { return lastMigrants; }
+
+    public int getPatchCount() { return patches.length; }
+
+    public long getPatchPopulation(int patch) { return patches[patch].getPopulation(); }
+
+    public int getOccupiedPatches() {
+        int occupied = 0;
+        for (CohortEngine patch : patches) {
+            if (patch.getPopulation() > 0) occupied++;
+        }
+        return occupied;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
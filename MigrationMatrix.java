@@ -0,0 +1,129 @@
+import java.util.Arrays;
+
+/**
+ * Sparse yearly migration probabilities between habitat patches.
+ *
+ * Edges are stored twice in compressed form: by source patch, for drawing
+ * emigrants, and by destination patch, for collecting immigrants. Each edge
+ * gives the probability that one animal moves from its source to its
+ * destination in a year. A patch's outgoing probabilities sum to at most 1.
+ */
+public class MigrationMatrix {
+    private final int patches;
+    // Outgoing edges of patch p are outStart[p] .. outStart[p+1]-1
+    private final int[] outStart;
+    private final int[] target;
+    private final double[] rate;
+    private final double[] totalRate;
+    // Incoming edge indices of patch p are incomingEdges[inStart[p] .. inStart[p+1]-1]
+    private final int[] inStart;
+    private final int[] incomingEdges;
+
+    /** Builds the matrix from parallel arrays of edges in any order. */
+    public MigrationMatrix(int patches, int[] from, int[] to, double[] rates) {
+        if (patches < 1) {
+            throw new IllegalArgumentException("A metapopulation needs at least one patch");
+        }
+        if (from.length != to.length || from.length != rates.length) {
+            throw new IllegalArgumentException("Edge arrays must have the same length");
+        }
+        int edges = from.length;
+        this.patches = patches;
+        this.outStart = new int[patches + 1];
+        this.target = new int[edges];
+        this.rate = new double[edges];
+        this.totalRate = new double[patches];
+        this.inStart = new int[patches + 1];
+        this.incomingEdges = new int[edges];
+
+        for (int e = 0; e < edges; e++) {
+            if (from[e] < 0 || from[e] >= patches || to[e] < 0 || to[e] >= patches) {
+                throw new IllegalArgumentException("Edge " + from[e] + " -> " + to[e] + " is outside the patches");
+            }
+            if (from[e] == to[e]) {
+                throw new IllegalArgumentException("Patch " + from[e] + " cannot migrate to itself");
+            }
+            if (!(rates[e] >= 0 && rates[e] <= 1)) {
+                throw new IllegalArgumentException("Migration rate must be between 0 and 1");
+            }
+            outStart[from[e] + 1]++;
+            inStart[to[e] + 1]++;
+            totalRate[from[e]] += rates[e];
+        }
+        for (int p = 0; p < patches; p++) {
+            if (totalRate[p] > 1 + 1e-9) {
+                throw new IllegalArgumentException("Migration rates out of patch " + p + " sum to more than 1");
+            }
+            totalRate[p] = Math.min(1, totalRate[p]);
+            outStart[p + 1] += outStart[p];
+            inStart[p + 1] += inStart[p];
+        }
+
+        int[] outFill = outStart.clone();
+        int[] inFill = inStart.clone();
+        for (int e = 0; e < edges; e++) {
+            int slot = outFill[from[e]]++;
+            target[slot] = to[e];
+            rate[slot] = rates[e];
+        }
+        // Incoming lists refer to edges by their position in the outgoing arrays
+        for (int p = 0; p < patches; p++) {
+            for (int slot = outStart[p]; slot < outStart[p + 1]; slot++) {
+                incomingEdges[inFill[target[slot]]++] = slot;
+            }
+        }
+    }
+
+    /** Isolated patches. */
+    public static MigrationMatrix none(int patches) {
+        return new MigrationMatrix(patches, new int[0], new int[0], new double[0]);
+    }
+
+    /**
+     * Rectangular lattice where each patch sends animals to its up to four
+     * direct neighbours. {@code emigrationRate} is the yearly probability of
+     * leaving, split evenly over the neighbours a patch has.
+     */
+    public static MigrationMatrix grid(int width, int height, double emigrationRate) {
+        if (width < 1 || height < 1) {
+            throw new IllegalArgumentException("Grid dimensions must be at least 1");
+        }
+        int patches = Math.multiplyExact(width, height);
+        int[] from = new int[patches * 4];
+        int[] to = new int[patches * 4];
+        double[] rates = new double[patches * 4];
+        int edges = 0;
+        int[] dx = {1, -1, 0, 0};
+        int[] dy = {0, 0, 1, -1};
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int first = edges;
+                for (int d = 0; d < 4; d++) {
+                    int nx = x + dx[d];
+                    int ny = y + dy[d];
+                    if (nx < 0 || nx >= width || ny < 0 || ny >= height) continue;
+                    from[edges] = y * width + x;
+                    to[edges] = ny * width + nx;
+                    edges++;
+                }
+                for (int e = first; e < edges; e++) {
+                    rates[e] = emigrationRate / (edges - first);
+                }
+            }
+        }
+        return new MigrationMatrix(patches, Arrays.copyOf(from, edges),
+                Arrays.copyOf(to, edges), Arrays.copyOf(rates, edges));
+    }
+
+    public int getPatches() { return patches; }
+    public int getEdges() { return target.length; }
+
+    int outStart(int patch) { return outStart[patch]; }
+    int outEnd(int patch) { return outStart[patch + 1]; }
+    int target(int edge) { return target[edge]; }
+    double rate(int edge) { return rate[edge]; }
+    double totalRate(int patch) { return totalRate[patch]; }
+    int inStart(int patch) { return inStart[patch]; }
+    int inEnd(int patch) { return inStart[patch + 1]; }
+    int incomingEdge(int index) { return incomingEdges[index]; }
+}
@@ -0,0 +1,63 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-year summary of a batch of replicate runs: mean, sample variance and
+ * the 5th/50th/95th percentile bands of the population.
+ */
+public class MonteCarloResult {
+    private final SpeciesProfile speciesProfile;
+    private final int initialPopulation;
+    private final int simulationYears;
+    private final int replicates;
+    private final long batchSeed;
+    private final double[] mean;
+    private final double[] variance;
+    private final double[] p5;
+    private final double[] p50;
+    private final double[] p95;
+
+    public MonteCarloResult(SpeciesProfile speciesProfile, int initialPopulation, int simulationYears,
+                            int replicates, long batchSeed) {
+        this.speciesProfile = speciesProfile;
+        this.initialPopulation = initialPopulation;
+        this.simulationYears = simulationYears;
+        this.replicates = replicates;
+        this.batchSeed = batchSeed;
+        int points = simulationYears + 1;
+        this.mean = new double[points];
+        this.variance = new double[points];
+        this.p5 = new double[points];
+        this.p50 = new double[points];
+        this.p95 = new double[points];
+    }
+
+    void setYear(int year, double mean, double variance, double p5, double p50, double p95) {
+        this.mean[year] = mean;
+        this.variance[year] = variance;
+        this.p5[year] = p5;
+        this.p50[year] = p50;
+        this.p95[year] = p95;
+    }
+
+    public SpeciesProfile getSpeciesProfile() { return speciesProfile; }
+    public int getInitialPopulation() { return initialPopulation; }
+    public int getSimulationYears() { return simulationYears; }
+    public int getReplicates() { return replicates; }
+    public long getBatchSeed() { return batchSeed; }
+    public double getMean(int year) { return mean[year]; }
+    public double getVariance(int year) { return variance[year]; }
+    public double getStandardDeviation(int year) { return Math.sqrt(variance[year]); }
+    public double getPercentile5(int year) { return p5[year]; }
+    public double getMedian(int year) { return p50[year]; }
+    public double getPercentile95(int year) { return p95[year]; }
+
+    // Median path in the shape the chart generators expect
+    public List<Long> getMedianHistory() {
+        List<Long> history = new ArrayList<>(p50.length);
+        for (double value : p50) {
+            history.add(Math.round(value));
+        }
+        return history;
+    }
+}
@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs many replicates of one configuration across a ForkJoinPool and
+ * summarizes them per year. Every replicate gets its own seed split from the
+ * batch seed, so a batch is reproducible and workers never share a generator.
+ *
+ * Replicates run in chunks and are folded into running per-year statistics
+ * in replicate order, so memory does not grow with the replicate count and
+ * an archive receives its runs in the same order on every machine. Means and
+ * variances are exact; percentiles come from a {@link PopulationHistogram}.
+ */
+public class MonteCarloRunner {
+    // Replicates handled by one task before it stops splitting
+    private static final int REPLICATES_PER_TASK = 4;
+    // Replicates whose histories are held at once, 8 MB for a 1000-year run
+    private static final int CHUNK_REPLICATES = 1024;
+    // Years folded by one task before it stops splitting
+    private static final int YEARS_PER_TASK = 16;
+
+    private final int parallelism;
+
+    public MonteCarloRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MonteCarloRunner(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public MonteCarloResult run(SpeciesProfile profile, int initialPopulation, int simulationYears,
+                                SimulationMode mode, int replicates, long batchSeed) {
+        return run(profile, initialPopulation, simulationYears, mode, replicates, batchSeed, null);
+    }
+
+    /** Same as above, additionally appending every replicate to the archive in replicate order. */
+    public MonteCarloResult run(SpeciesProfile profile, int initialPopulation, int simulationYears,
+                                SimulationMode mode, int replicates, long batchSeed, ReplicateArchive archive) {
+        if (replicates < 1) {
+            throw new IllegalArgumentException("At least one replicate is required");
+        }
+        long[] seeds = RandomDraws.splitSeeds(batchSeed, replicates);
+        int points = simulationYears + 1;
+        long[][] histories = new long[Math.min(replicates, CHUNK_REPLICATES)][];
+        // Welford's running mean and sum of squared deviations, per year
+        double[] mean = new double[points];
+        double[] squares = new double[points];
+        PopulationHistogram[] histograms = new PopulationHistogram[points];
+        for (int year = 0; year < points; year++) {
+            histograms[year] = new PopulationHistogram();
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            for (int first = 0; first < replicates; first += histories.length) {
+                int offset = first;
+                int count = Math.min(histories.length, replicates - first);
+                pool.invoke(new RangeTask(0, count, REPLICATES_PER_TASK, index -> {
+                    PopulationSimulation simulation = new PopulationSimulation(profile, initialPopulation,
+                            simulationYears, mode, seeds[offset + index]);
+                    simulation.run();
+                    histories[index] = toArray(simulation.getPopulationHistory());
+                }));
+                if (archive != null) {
+                    try {
+                        for (int index = 0; index < count; index++) {
+                            archive.append(histories[index]);
+                        }
+                        archive.sync();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                pool.invoke(new RangeTask(0, points, YEARS_PER_TASK, year -> {
+                    for (int index = 0; index < count; index++) {
+                        long value = histories[index][year];
+                        double deviation = value - mean[year];
+                        mean[year] += deviation / (offset + index + 1);
+                        squares[year] += deviation * (value - mean[year]);
+                        histograms[year].add(value);
+                    }
+                }));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        MonteCarloResult result = new MonteCarloResult(profile, initialPopulation, simulationYears,
+                replicates, batchSeed);
+        for (int year = 0; year < points; year++) {
+            PopulationHistogram histogram = histograms[year];
+            result.setYear(year, mean[year], replicates > 1 ? squares[year] / (replicates - 1) : 0,
+                    histogram.percentile(0.05), histogram.percentile(0.50), histogram.percentile(0.95));
+        }
+        return result;
+    }
+
+    public int getParallelism() { return parallelism; }
+
+    private static long[] toArray(List<Long> history) {
+        long[] values = new long[history.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = history.get(i);
+        }
+        return values;
+    }
+}
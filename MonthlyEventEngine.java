@@ -0,0 +1,359 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sub-annual engine: births and deaths are rate events in continuous time,
+ * stepped one month at a time over animal counts per age in months.
+ *
+ * Each breeding-age female has litters at avgLittersPerYear / 12 per month
+ * (no fixed once-a-year breeding draw), and each animal dies at a constant
+ * monthly hazard chosen so a full year gives the same juvenile, adult and
+ * elder survival as the yearly engines. Newborns survive birth with the
+ * offspring survival rate. Density dependence is calibrated to this
+ * engine's own monthly growth rate and applied every month: answering a
+ * year of monthly litters with one yearly factor overshoots so far that the
+ * logistic model turns chaotic and crashes.
+ *
+ * A month is normally one tau-leap: Poisson-distributed litter and death
+ * counts per age bucket, so cost does not grow with headcount. Below
+ * {@link #EXACT_BELOW} animals, where a leap's Poisson draws would be too
+ * coarse, the month is simulated event by event with Gillespie's direct
+ * method instead.
+ */
+public class MonthlyEventEngine implements PopulationEngine {
+    // Populations below this are stepped with exact Gillespie events
+    static final long EXACT_BELOW = 256;
+    // Ceiling that keeps every sum of buckets well inside a long
+    static final long POPULATION_LIMIT = CohortEngine.POPULATION_LIMIT;
+
+    private final SpeciesProfile speciesProfile;
+    private final RandomGenerator random;
+    private final DensityDependence density;
+    private final int reproductionAge;
+    // counts[age] = animals of that age in months; the last bucket holds every elder
+    private final long[] counts;
+    // Deaths per animal per month for each bucket, refreshed each month under density dependence
+    private final double[] hazard;
+    // Chance of dying within one month, 1 - exp(-hazard), used as the leap's expected deaths per animal
+    private final double[] monthlyDeath;
+    private final double littersPerMonth;
+    private final double litterMean;
+    private final double litterVariance;
+    // Expected unregulated growth per month, the base density dependence scales down
+    private final double baseMonthlyGrowth;
+    private double newbornSurvival;
+    private long population;
+    private long lastBirths;
+    private long lastDeaths;
+    private long lastBreeders;
+    private boolean limitReached;
+    private final boolean timed = SimulationMetrics.isEnabled();
+
+    public MonthlyEventEngine(SpeciesProfile speciesProfile, RandomGenerator random) {
+        this(speciesProfile, random, DensityDependence.NONE);
+    }
+
+    public MonthlyEventEngine(SpeciesProfile speciesProfile, RandomGenerator random, DensityDependence density) {
+        if (speciesProfile.getReproductionAge() < 1) {
+            throw new IllegalArgumentException("Reproduction age must be at least 1 month");
+        }
+        this.speciesProfile = speciesProfile;
+        this.random = random;
+        this.reproductionAge = speciesProfile.getReproductionAge();
+        this.counts = new long[reproductionAge * 3 + 2];
+        this.hazard = new double[counts.length];
+        this.monthlyDeath = new double[counts.length];
+        this.littersPerMonth = speciesProfile.getAvgLittersPerYear() / PopulationSimulation.MONTHS_PER_YEAR;
+        double[] moments = CohortEngine.litterMoments(speciesProfile.getAvgLitterSize());
+        this.litterMean = moments[0];
+        this.litterVariance = moments[1];
+        this.baseMonthlyGrowth = monthlyGrowth(1);
+        // Monthly litters grow faster than the yearly projection, so calibrate to this engine's own rate
+        this.density = density.isEnabled() ? density.forGrowthRate(baseMonthlyGrowth) : density;
+    }
+
+    @Override
+    public void initialize(long initialPopulation) {
+        // Same starting ages as the yearly engines: uniform over 0 .. 2*reproductionAge-1 months
+        long remaining = initialPopulation;
+        int ageSpan = reproductionAge * 2;
+        for (int age = 0; age < ageSpan && remaining > 0; age++) {
+            long drawn = RandomDraws.binomial(random, remaining, 1.0 / (ageSpan - age));
+            counts[age] = drawn;
+            remaining -= drawn;
+        }
+        // Only animals actually placed in a bucket count
+        population = initialPopulation - remaining;
+    }
+
+    @Override
+    public long step() {
+        lastBirths = 0;
+        lastDeaths = 0;
+        lastBreeders = breedingFemales();
+
+        for (int month = 0; month < PopulationSimulation.MONTHS_PER_YEAR && population > 0; month++) {
+            // Without density dependence the rates are the same all year
+            if (month == 0 || density.isEnabled()) {
+                double survivalRate = speciesProfile.getSurvivalRate() * survivalScale(density.factor(population));
+                if (survivalRate <= 0) {
+                    // Nothing survives, as with a zero survival rate in the yearly engines
+                    Arrays.fill(counts, 0);
+                    lastDeaths += population;
+                    population = 0;
+                    break;
+                }
+                setYearRates(survivalRate);
+            }
+            if (population < EXACT_BELOW) {
+                exactMonth();
+            } else {
+                leapMonth();
+            }
+            ageOneMonth();
+        }
+        long recorded = population;
+
+        // Prevent extinction
+        if (population <= 0) {
+            counts[reproductionAge] = 1; // Add one mature individual
+            population = 1;
+        }
+        return recorded;
+    }
+
+    @Override
+    public long getPopulation() { return population; }
+
+    @Override
+    public long getLastBirths() { return lastBirths; }
+
+    @Override
+    public long getLastDeaths() { return lastDeaths; }
+
+    @Override
+    public long getLastBreeders() { return lastBreeders; }
+
+    @Override
+    public boolean isLimitReached() { return limitReached; }
+
+    @Override
+    public void saveState(DataOutput out) throws IOException {
+        out.writeInt(counts.length);
+        for (long count : counts) {
+            out.writeLong(count);
+        }
+        out.writeBoolean(limitReached);
+    }
+
+    @Override
+    public void restoreState(DataInput in) throws IOException {
+        int buckets = in.readInt();
+        if (buckets != counts.length) {
+            throw new IOException("Checkpoint has " + buckets + " age buckets, expected " + counts.length);
+        }
+        long total = 0;
+        for (int age = 0; age < buckets; age++) {
+            counts[age] = in.readLong();
+            total += counts[age];
+        }
+        population = total;
+        limitReached = in.readBoolean();
+    }
+
+    // A yearly survival s over 12 months of constant hazard h means h = -ln(s) / 12
+    private void setYearRates(double survivalRate) {
+        int elderBucket = counts.length - 1;
+        for (int age = 0; age < counts.length; age++) {
+            double rate;
+            if (age < reproductionAge) {
+                rate = survivalRate * PopulationSimulation.JUVENILE_SURVIVAL_FACTOR;
+            } else if (age == elderBucket) {
+                rate = survivalRate * PopulationSimulation.ELDER_SURVIVAL_FACTOR;
+            } else {
+                rate = survivalRate;
+            }
+            hazard[age] = -Math.log(Math.min(1, rate)) / PopulationSimulation.MONTHS_PER_YEAR;
+            monthlyDeath[age] = -Math.expm1(-hazard[age]);
+        }
+        newbornSurvival = Math.min(1, survivalRate);
+    }
+
+    private void leapMonth() {
+        long mark = timed ? System.nanoTime() : 0;
+        long litters = RandomDraws.poisson(random, breedingFemales() * littersPerMonth);
+        addNewborns(litters);
+        mark = SimulationMetrics.lap(timed, SimulationMetrics.Phase.BREEDING, mark);
+
+        for (int age = 0; age < counts.length; age++) {
+            long resident = counts[age];
+            if (resident == 0) continue;
+            // A leap can draw more deaths than animals; the bucket then simply empties
+            long deaths = Math.min(resident, RandomDraws.poisson(random, resident * monthlyDeath[age]));
+            counts[age] -= deaths;
+            population -= deaths;
+            lastDeaths += deaths;
+        }
+        SimulationMetrics.lap(timed, SimulationMetrics.Phase.MORTALITY, mark);
+    }
+
+    // Gillespie's direct method: draw the time to the next event, then which event it is
+    private void exactMonth() {
+        double rate = totalRate();
+        double time = rate > 0 ? random.nextExponential() / rate : 1;
+        while (time < 1) {
+            double pick = random.nextDouble() * rate;
+            double litterRate = breedingFemalesExpected() * littersPerMonth;
+            if (pick < litterRate) {
+                addNewborns(1);
+            } else {
+                pick -= litterRate;
+                int age = 0;
+                while (age < counts.length - 1 && pick >= deathRate(age)) {
+                    pick -= deathRate(age);
+                    age++;
+                }
+                if (counts[age] > 0) {
+                    counts[age]--;
+                    population--;
+                    lastDeaths++;
+                }
+            }
+            rate = totalRate();
+            if (rate <= 0) break;
+            time += random.nextExponential() / rate;
+        }
+    }
+
+    /*
+     * Density dependence gives the factor the monthly growth rate should be
+     * scaled by. Growth here is not proportional to survival, because
+     * survivors also breed again within the year, so the survival scale that
+     * gives the wanted growth is solved for from the Euler-Lotka equation of
+     * the expected monthly dynamics.
+     */
+    private double survivalScale(double growthFactor) {
+        if (growthFactor >= 1) return 1;
+        if (growthFactor <= 0) return 0;
+        double targetMonthly = baseMonthlyGrowth * growthFactor;
+        double low = 0;
+        double high = 1;
+        for (int i = 0; i < 50; i++) {
+            double mid = (low + high) / 2;
+            if (lotkaSum(mid, targetMonthly) < 1) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    // Expected monthly growth once the age structure has settled, with survival scaled by scale
+    private double monthlyGrowth(double scale) {
+        double low = survivalPerMonth(scale, counts.length - 1);
+        double high = Math.max(1, low) * 2;
+        while (lotkaSum(scale, high) > 1) {
+            high *= 2;
+        }
+        for (int i = 0; i < 100; i++) {
+            double mid = (low + high) / 2;
+            if (lotkaSum(scale, mid) > 1) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        return (low + high) / 2;
+    }
+
+    // Sum over ages of expected litters' survivors discounted by the monthly growth; 1 at the growth rate
+    private double lotkaSum(double scale, double monthlyGrowth) {
+        double survival = speciesProfile.getSurvivalRate() * scale;
+        double births = PopulationSimulation.FEMALE_RATIO * littersPerMonth * litterMean * Math.min(1, survival);
+        int elderBucket = counts.length - 1;
+        double sum = 0;
+        double reaching = 1; // chance of living to this age, discounted by growth
+        for (int age = 0; age < elderBucket; age++) {
+            if (age >= reproductionAge) sum += reaching;
+            reaching *= survivalPerMonth(scale, age) / monthlyGrowth;
+        }
+        double staying = survivalPerMonth(scale, elderBucket) / monthlyGrowth;
+        if (staying >= 1) return Double.POSITIVE_INFINITY;
+        return births * (sum + reaching / (1 - staying));
+    }
+
+    private double survivalPerMonth(double scale, int age) {
+        double rate = speciesProfile.getSurvivalRate() * scale;
+        if (age < reproductionAge) {
+            rate *= PopulationSimulation.JUVENILE_SURVIVAL_FACTOR;
+        } else if (age == counts.length - 1) {
+            rate *= PopulationSimulation.ELDER_SURVIVAL_FACTOR;
+        }
+        return Math.pow(Math.min(1, rate), 1.0 / PopulationSimulation.MONTHS_PER_YEAR);
+    }
+
+    private double totalRate() {
+        double rate = breedingFemalesExpected() * littersPerMonth;
+        for (int age = 0; age < counts.length; age++) {
+            rate += deathRate(age);
+        }
+        return rate;
+    }
+
+    private double deathRate(int age) {
+        return counts[age] * hazard[age];
+    }
+
+    private void addNewborns(long litters) {
+        if (litters <= 0) return;
+        long offspring;
+        if (litters <= 64) {
+            offspring = 0;
+            for (long i = 0; i < litters; i++) {
+                double variation = 0.8 + random.nextDouble() * 0.4;
+                offspring += (long) (speciesProfile.getAvgLitterSize() * variation);
+            }
+        } else {
+            double deviation = Math.sqrt(litters * litterVariance);
+            offspring = Math.max(0, Math.round(litters * litterMean + deviation * random.nextGaussian()));
+        }
+        long newborns = RandomDraws.binomial(random, offspring, newbornSurvival);
+        if (newborns > POPULATION_LIMIT - population) {
+            newborns = POPULATION_LIMIT - population;
+            limitReached = true;
+        }
+        counts[0] += newborns;
+        population += newborns;
+        lastBirths += newborns;
+    }
+
+    private long breedingFemales() {
+        return (long) (adults() * PopulationSimulation.FEMALE_RATIO);
+    }
+
+    // Continuous rates need the expected female count, not a rounded one
+    private double breedingFemalesExpected() {
+        return adults() * PopulationSimulation.FEMALE_RATIO;
+    }
+
+    private long adults() {
+        long adults = 0;
+        for (int age = reproductionAge; age < counts.length; age++) {
+            adults += counts[age];
+        }
+        return adults;
+    }
+
+    private void ageOneMonth() {
+        long mark = timed ? System.nanoTime() : 0;
+        int elderBucket = counts.length - 1;
+        counts[elderBucket] += counts[elderBucket - 1];
+        System.arraycopy(counts, 0, counts, 1, elderBucket - 1);
+        counts[0] = 0;
+        SimulationMetrics.lap(timed, SimulationMetrics.Phase.AGING, mark);
+    }
+}
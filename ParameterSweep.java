@@ -0,0 +1,193 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs one simulation per point of the cartesian grid of SpeciesProfile
+ * parameter ranges. Grid points are generated on the fly, the worker queue is
+ * bounded so submission blocks instead of piling up tasks, and every result
+ * is handed to a sink as soon as its run finishes.
+ */
+public class ParameterSweep {
+    private final String speciesName;
+    private final Range litterSize;
+    private final Range littersPerYear;
+    private final Range survivalRate;
+    private final Range reproductionAge;
+    private final int initialPopulation;
+    private final int simulationYears;
+    private final SimulationMode mode;
+    private final long sweepSeed;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = parallelism * 4;
+
+    public ParameterSweep(String speciesName, Range litterSize, Range littersPerYear, Range survivalRate,
+                          Range reproductionAge, int initialPopulation, int simulationYears,
+                          SimulationMode mode, long sweepSeed) {
+        if (survivalRate.getMin() < 0 || survivalRate.getMax() > 1) {
+            throw new IllegalArgumentException("Survival rate must be between 0 and 1");
+        }
+        if (reproductionAge.getMin() < 1) {
+            throw new IllegalArgumentException("Reproduction age must be at least 1 month");
+        }
+        this.speciesName = speciesName;
+        this.litterSize = litterSize;
+        this.littersPerYear = littersPerYear;
+        this.survivalRate = survivalRate;
+        this.reproductionAge = reproductionAge;
+        this.initialPopulation = initialPopulation;
+        this.simulationYears = simulationYears;
+        this.mode = mode;
+        this.sweepSeed = sweepSeed;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getGridSize() {
+        return (long) litterSize.getSteps() * littersPerYear.getSteps()
+                * survivalRate.getSteps() * reproductionAge.getSteps();
+    }
+
+    /**
+     * Runs the whole grid and blocks until every result has reached the sink.
+     * Sink calls are serialized, so the sink itself need not be thread-safe.
+     * Returns the number of grid points run.
+     */
+    public long run(Sink sink) throws InterruptedException {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.CallerRunsPolicy());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Object sinkLock = new Object();
+        SplittableRandom seeds = new SplittableRandom(sweepSeed);
+        long gridSize = getGridSize();
+        long submitted = 0;
+
+        try {
+            for (long index = 0; index < gridSize && failure.get() == null; index++) {
+                SpeciesProfile profile = profileAt(index);
+                long seed = seeds.split().nextLong();
+                executor.execute(() -> {
+                    if (failure.get() != null) return;
+                    try {
+                        PopulationSimulation simulation = new PopulationSimulation(profile, initialPopulation,
+                                simulationYears, mode, seed);
+                        simulation.run();
+                        Result result = new Result(simulation);
+                        synchronized (sinkLock) {
+                            sink.accept(result);
+                        }
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                submitted++;
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return submitted;
+    }
+
+    // Decodes a grid index as a mixed-radix number, reproduction age varying fastest
+    private SpeciesProfile profileAt(long index) {
+        int ageIndex = (int) (index % reproductionAge.getSteps());
+        index /= reproductionAge.getSteps();
+        int survivalIndex = (int) (index % survivalRate.getSteps());
+        index /= survivalRate.getSteps();
+        int littersIndex = (int) (index % littersPerYear.getSteps());
+        index /= littersPerYear.getSteps();
+        int litterSizeIndex = (int) index;
+
+        return new SpeciesProfile(speciesName, litterSize.valueAt(litterSizeIndex),
+                littersPerYear.valueAt(littersIndex), survivalRate.valueAt(survivalIndex),
+                (int) Math.round(reproductionAge.valueAt(ageIndex)));
+    }
+
+    /** Evenly spaced values from min to max inclusive. */
+    public static class Range {
+        private final double min;
+        private final double max;
+        private final int steps;
+
+        public Range(double min, double max, int steps) {
+            if (steps < 1) {
+                throw new IllegalArgumentException("A range needs at least one step");
+            }
+            if (max < min) {
+                throw new IllegalArgumentException("Range maximum must not be below its minimum");
+            }
+            this.min = min;
+            this.max = max;
+            this.steps = steps;
+        }
+
+        public static Range fixed(double value) {
+            return new Range(value, value, 1);
+        }
+
+        public double valueAt(int index) {
+            return steps == 1 ? min : min + (max - min) * index / (steps - 1);
+        }
+
+        public double getMin() { return min; }
+        public double getMax() { return max; }
+        public int getSteps() { return steps; }
+    }
+
+    /** Summary of one grid point; the run's history is not kept. */
+    public static class Result {
+        private final SpeciesProfile speciesProfile;
+        private final long seed;
+        private final long finalPopulation;
+        private final long minimumPopulation;
+        private final long maximumPopulation;
+        private final double averageGrowthRate;
+
+        Result(PopulationSimulation simulation) {
+            this.speciesProfile = simulation.getSpeciesProfile();
+            this.seed = simulation.getSeed();
+            this.finalPopulation = simulation.getFinalPopulation();
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            for (long population : simulation.getPopulationHistory()) {
+                min = Math.min(min, population);
+                max = Math.max(max, population);
+            }
+            this.minimumPopulation = min;
+            this.maximumPopulation = max;
+            this.averageGrowthRate = simulation.getAverageGrowthRate();
+        }
+
+        public SpeciesProfile getSpeciesProfile() { return speciesProfile; }
+        public long getSeed() { return seed; }
+        public long getFinalPopulation() { return finalPopulation; }
+        public long getMinimumPopulation() { return minimumPopulation; }
+        public long getMaximumPopulation() { return maximumPopulation; }
+        public double getAverageGrowthRate() { return averageGrowthRate; }
+        // The engine reseeds an extinct population, so any zero year counts as extinction
+        public boolean wentExtinct() { return minimumPopulation == 0; }
+    }
+
+    public interface Sink {
+        void accept(Result result);
+    }
+}
@@ -0,0 +1,37 @@
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * One year-stepping implementation of the SpeciesProfile life-history rules.
+ * Counts from the most recent step are kept so callers can report them
+ * without the engine allocating a result object every year.
+ */
+public interface PopulationEngine {
+    void initialize(long initialPopulation);
+
+    /** Advances the population by one year and returns the headcount recorded for that year. */
+    long step();
+
+    long getPopulation();
+
+    long getLastBirths();
+
+    long getLastDeaths();
+
+    long getLastBreeders();
+
+    /** True once the engine has had to cap the population at its ceiling. */
+    default boolean isLimitReached() {
+        return false;
+    }
+
+    /**
+     * Writes everything an engine built for the same profile needs to carry
+     * on from the current year, including the state of its random generators.
+     */
+    void saveState(DataOutput out) throws IOException;
+
+    /** Used in place of initialize: continues from state written by saveState. */
+    void restoreState(DataInput in) throws IOException;
+}
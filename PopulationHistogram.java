@@ -0,0 +1,67 @@
+/**
+ * Counts of population sizes in buckets of fixed relative width, so
+ * percentiles over any number of runs take constant memory.
+ *
+ * Values below {@link #EXACT_BELOW} each get their own bucket and are exact.
+ * Above that every doubling is split into 64 equal buckets, so a percentile
+ * is reported as its bucket's midpoint, within 0.8% of the true value.
+ */
+class PopulationHistogram {
+    static final int EXACT_BELOW = 1024;
+    private static final int EXACT_BITS = 10;
+    private static final int SUB_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    // Exact buckets, then 64 per doubling from 2^10 up to the largest long
+    private static final int BUCKETS = EXACT_BELOW + (Long.SIZE - 1 - EXACT_BITS) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKETS];
+    private long total;
+
+    void add(long value) {
+        counts[bucket(Math.max(0, value))]++;
+        total++;
+    }
+
+    long getCount() { return total; }
+
+    /** Same interpolation between the closest ranks as a percentile of the sorted values. */
+    double percentile(double fraction) {
+        if (total == 0) return 0;
+        double rank = fraction * (total - 1);
+        long lower = (long) Math.floor(rank);
+        double low = valueAtRank(lower);
+        double high = valueAtRank(Math.min(lower + 1, total - 1));
+        return low + (rank - lower) * (high - low);
+    }
+
+    private double valueAtRank(long rank) {
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts[bucket];
+            if (seen > rank) {
+                return midpoint(bucket);
+            }
+        }
+        return midpoint(BUCKETS - 1);
+    }
+
+    static int bucket(long value) {
+        if (value < EXACT_BELOW) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return EXACT_BELOW + (exponent - EXACT_BITS) * SUB_BUCKETS + sub;
+    }
+
+    static double midpoint(int bucket) {
+        if (bucket < EXACT_BELOW) {
+            return bucket;
+        }
+        int exponent = (bucket - EXACT_BELOW) / SUB_BUCKETS + EXACT_BITS;
+        int sub = (bucket - EXACT_BELOW) % SUB_BUCKETS;
+        int shift = exponent - SUB_BITS;
+        double low = (double) ((long) (SUB_BUCKETS + sub) << shift);
+        return low + ((1L << shift) - 1) / 2.0;
+    }
+}
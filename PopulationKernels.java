@@ -0,0 +1,109 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Per-year kernels over a primitive age buffer: aging, the breeder count and
+ * the survival pass. When the JVM was started with
+ * {@code --add-modules jdk.incubator.vector} and the separately compiled
+ * VectorKernels class (simd/) is on the class path they run as SIMD code;
+ * otherwise, or with -Dpopulation.kernels=scalar, the scalar loops here are
+ * used. Both give identical results, and the survival
+ * pass draws its uniforms in the same order either way, so a seed
+ * reproduces the same history with or without the Vector API.
+ */
+public class PopulationKernels {
+    // Loaded once, and only when the module is present, so neither it nor VectorKernels is needed otherwise
+    static final Simd SIMD = loadSimd();
+    static final boolean VECTORIZED = SIMD != null;
+
+    /** The kernels VectorKernels implements on the Vector API. */
+    interface Simd {
+        void ageAll(int[] ages, int size, int months);
+
+        int countAtLeast(int[] ages, int size, int threshold);
+
+        int compactSurvivors(int[] ages, int size, RandomGenerator random, int reproductionAge, int elderAge,
+                             double juvenileSurvival, double adultSurvival, double elderSurvival);
+    }
+
+    private PopulationKernels() {
+    }
+
+    private static Simd loadSimd() {
+        if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+                || "scalar".equals(System.getProperty("population.kernels"))) {
+            return null;
+        }
+        try {
+            return (Simd) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null; // built without simd/, as the Eclipse project is
+        }
+    }
+
+    public static void ageAll(int[] ages, int size, int months) {
+        if (VECTORIZED) {
+            SIMD.ageAll(ages, size, months);
+        } else {
+            ageAllScalar(ages, size, months);
+        }
+    }
+
+    /** Number of ages at or above the threshold. */
+    public static int countAtLeast(int[] ages, int size, int threshold) {
+        return VECTORIZED ? SIMD.countAtLeast(ages, size, threshold)
+                          : countAtLeastScalar(ages, size, threshold);
+    }
+
+    /**
+     * Keeps each animal with the survival rate of its age class and compacts
+     * survivors to the front of the buffer. Draws one uniform per animal in
+     * buffer order. Returns the number of survivors.
+     */
+    public static int compactSurvivors(int[] ages, int size, RandomGenerator random, int reproductionAge,
+                                       int elderAge, double juvenileSurvival, double adultSurvival,
+                                       double elderSurvival) {
+        if (VECTORIZED) {
+            return SIMD.compactSurvivors(ages, size, random, reproductionAge, elderAge,
+                    juvenileSurvival, adultSurvival, elderSurvival);
+        }
+        return compactSurvivorsScalar(ages, size, random, reproductionAge, elderAge,
+                juvenileSurvival, adultSurvival, elderSurvival);
+    }
+
+    // Scalar fallbacks, also used for the tails the vector loops leave over
+
+    static void ageAllScalar(int[] ages, int size, int months) {
+        for (int i = 0; i < size; i++) {
+            ages[i] += months;
+        }
+    }
+
+    static int countAtLeastScalar(int[] ages, int size, int threshold) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            // Sign bit of (threshold - 1 - age) is set exactly when age >= threshold
+            count += (threshold - 1 - ages[i]) >>> 31;
+        }
+        return count;
+    }
+
+    static int compactSurvivorsScalar(int[] ages, int size, RandomGenerator random, int reproductionAge,
+                                      int elderAge, double juvenileSurvival, double adultSurvival,
+                                      double elderSurvival) {
+        int survivors = 0;
+        for (int i = 0; i < size; i++) {
+            int age = ages[i];
+            // Always store, only advance the write index for survivors
+            ages[survivors] = age;
+            survivors += random.nextDouble() < survivalRate(age, reproductionAge, elderAge,
+                    juvenileSurvival, adultSurvival, elderSurvival) ? 1 : 0;
+        }
+        return survivors;
+    }
+
+    static double survivalRate(int age, int reproductionAge, int elderAge, double juvenileSurvival,
+                               double adultSurvival, double elderSurvival) {
+        double rate = age < reproductionAge ? juvenileSurvival : adultSurvival;
+        return age > elderAge ? elderSurvival : rate;
+    }
+}
@@ -1,116 +1,244 @@
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
 
 public class PopulationSimulation implements Serializable {
     private static final long serialVersionUID = 1L;
+
+    // Life-history rules shared by every engine
+    static final int MONTHS_PER_YEAR = 12;
+    static final double FEMALE_RATIO = 0.5;
+    static final double BREEDING_PROBABILITY = 0.8;
+    static final double JUVENILE_SURVIVAL_FACTOR = 0.7;
+    static final double ELDER_SURVIVAL_FACTOR = 0.6;
     
     private final SpeciesProfile speciesProfile;
     private final int initialPopulation;
     private final int simulationYears;
-    private final List<Integer> populationHistory = new ArrayList<>();
+    private final SimulationMode mode;
+    private final long seed;
+    private DensityDependence densityDependence = DensityDependence.NONE;
+    private final List<Long> populationHistory = new ArrayList<>();
     private double averageGrowthRate;
+    // First year an engine hit its population ceiling, 0 if it never did
+    private int limitReachedYear;
+    // Builds the generator for a run from its seed; not saved with the run
+    private transient LongFunction<RandomGenerator> randomSource;
+    private transient List<SimulationListener> listeners;
+    private transient volatile boolean cancelled;
+    // Snapshot taken every checkpointInterval years while checkpointSink is set
+    private transient int checkpointInterval;
+    private transient Consumer<SimulationCheckpoint> checkpointSink;
+    // Set on runs built by SimulationCheckpoint.resume() or fork(): they start from that year
+    private transient SimulationCheckpoint resumePoint;
+    private transient long resumeRandomState;
 
     public PopulationSimulation(SpeciesProfile speciesProfile, int initialPopulation, int simulationYears) {
+        this(speciesProfile, initialPopulation, simulationYears, SimulationMode.COHORT);
+    }
+
+    public PopulationSimulation(SpeciesProfile speciesProfile, int initialPopulation, int simulationYears,
+                                SimulationMode mode) {
+        this(speciesProfile, initialPopulation, simulationYears, mode, ThreadLocalRandom.current().nextLong());
+    }
+
+    public PopulationSimulation(SpeciesProfile speciesProfile, int initialPopulation, int simulationYears,
+                                SimulationMode mode, long seed) {
         this.speciesProfile = speciesProfile;
         this.initialPopulation = initialPopulation;
         this.simulationYears = simulationYears;
+        this.mode = mode;
+        this.seed = seed;
+    }
+
+    // Rebuilds a finished run from stored data without rerunning it
+    static PopulationSimulation restore(SpeciesProfile speciesProfile, int initialPopulation, int simulationYears,
+                                        SimulationMode mode, long seed, List<Long> history) {
+        return restore(speciesProfile, initialPopulation, simulationYears, mode, seed, history, 0);
+    }
+
+    static PopulationSimulation restore(SpeciesProfile speciesProfile, int initialPopulation, int simulationYears,
+                                        SimulationMode mode, long seed, List<Long> history, int limitReachedYear) {
+        PopulationSimulation simulation = new PopulationSimulation(speciesProfile, initialPopulation,
+                simulationYears, mode, seed);
+        simulation.populationHistory.addAll(history);
+        simulation.limitReachedYear = limitReachedYear;
+        simulation.calculateGrowthRate();
+        return simulation;
+    }
+
+    /**
+     * Replaces the default SplittableRandom with another generator built from
+     * the run's seed. The same seed and source always reproduce the same history.
+     */
+    public void setRandomSource(LongFunction<RandomGenerator> randomSource) {
+        this.randomSource = randomSource;
+    }
+
+    boolean hasRandomSource() {
+        return randomSource != null;
+    }
+
+    /** Regulates growth around a carrying capacity from the next run on. */
+    public void setDensityDependence(DensityDependence densityDependence) {
+        this.densityDependence = densityDependence;
+    }
+
+    // Runs saved before density dependence existed read back with no model
+    public DensityDependence getDensityDependence() {
+        return densityDependence != null ? densityDependence : DensityDependence.NONE;
+    }
+
+    /**
+     * Hands a checkpoint of the run in flight to {@code sink} every
+     * {@code everyYears} years, and once more if the run is cancelled, so it
+     * can be resumed or forked later. 0 turns checkpointing off. Checkpoints
+     * need the default random generator.
+     */
+    public void setCheckpointing(int everyYears, Consumer<SimulationCheckpoint> sink) {
+        if (everyYears < 0) {
+            throw new IllegalArgumentException("Checkpoint interval cannot be negative");
+        }
+        this.checkpointInterval = everyYears;
+        this.checkpointSink = everyYears > 0 ? sink : null;
+    }
+
+    void resumeFrom(SimulationCheckpoint checkpoint, long randomState) {
+        this.resumePoint = checkpoint;
+        this.resumeRandomState = randomState;
+    }
+
+    /** Year this run continues from when it was resumed or forked from a checkpoint, otherwise 0. */
+    public int getResumedYear() {
+        return resumePoint != null ? resumePoint.getYear() : 0;
+    }
+
+    public void addListener(SimulationListener listener) {
+        if (listeners == null) {
+            listeners = new CopyOnWriteArrayList<>();
+        }
+        listeners.add(listener);
+    }
+
+    public void removeListener(SimulationListener listener) {
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
     }
 
+    /** Stops a running simulation after the current year; the history keeps the years already computed. */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() { return cancelled; }
+
     public void run() {
         populationHistory.clear();
-        List<Integer> ageCohorts = new ArrayList<>();
-        
-        // Initialize with mixed-age population (some adults)
-        for (int i = 0; i < initialPopulation; i++) {
-            // Random age between 0 and 2*reproduction age
-            int randomAge = (int)(Math.random() * speciesProfile.getReproductionAge() * 2);
-            ageCohorts.add(randomAge);
+        limitReachedYear = 0;
+        cancelled = false;
+        if (randomSource != null && (checkpointSink != null || resumePoint != null)) {
+            throw new IllegalStateException("Checkpointed runs use the default random generator");
         }
-        
-        int currentPopulation = initialPopulation;
-        populationHistory.add(currentPopulation);
+        // Same stream as new SplittableRandom(seed), but with a state checkpoints can store
+        RandomGenerator random = randomSource != null ? randomSource.apply(seed)
+                : new ResumableRandom(resumePoint != null ? resumeRandomState : seed);
+        DensityDependence density = getDensityDependence();
+        PopulationEngine engine = switch (getMode()) {
+            case COHORT -> new CohortEngine(speciesProfile, random, density);
+            case DETERMINISTIC -> new LeslieProjection(speciesProfile, density);
+            case INDIVIDUAL -> new IndividualEngine(speciesProfile, random, density);
+            case MONTHLY -> new MonthlyEventEngine(speciesProfile, random, density);
+        };
+        boolean notify = listeners != null && !listeners.isEmpty();
+        boolean timed = SimulationMetrics.isEnabled();
+        long allocatedBefore = timed ? SimulationMetrics.threadAllocatedBytes() : 0;
+        long[] stepNanos = timed ? new long[simulationYears + 1] : null;
 
-        for (int year = 1; year <= simulationYears; year++) {
-            // Age all cohorts by 12 months
-            for (int i = 0; i < ageCohorts.size(); i++) {
-                ageCohorts.set(i, ageCohorts.get(i) + 12);
+        if (notify) {
+            listeners.forEach(listener -> listener.onStart(this));
+        }
+        int firstYear = 1;
+        if (resumePoint != null) {
+            resumePoint.restoreEngine(engine);
+            populationHistory.addAll(resumePoint.getPopulationHistory());
+            limitReachedYear = resumePoint.getLimitReachedYear();
+            firstYear = resumePoint.getYear() + 1;
+        } else {
+            engine.initialize(initialPopulation);
+            populationHistory.add((long) initialPopulation);
+            if (notify) {
+                publish(new YearSnapshot(0, initialPopulation, 0, 0, 0));
             }
+        }
 
-            // Calculate breeding population
-            int breedingFemales = calculateBreedingPopulation(ageCohorts);
-            
-            // Calculate new offspring
-            int newOffspring = calculateNewOffspring(breedingFemales);
-            
-            // Apply annual mortality
-            currentPopulation = applyAnnualMortality(ageCohorts);
-            
-            // Add new offspring
-            for (int i = 0; i < newOffspring; i++) {
-                ageCohorts.add(0); // Newborns have age 0
+        int lastCheckpoint = firstYear - 1;
+        for (int year = firstYear; year <= simulationYears && !cancelled; year++) {
+            long start = timed ? System.nanoTime() : 0;
+            long population = engine.step();
+            if (timed) {
+                stepNanos[year] = System.nanoTime() - start;
+                SimulationMetrics.record(SimulationMetrics.Phase.STEP, stepNanos[year]);
             }
-            
-            currentPopulation += newOffspring;
-            populationHistory.add(currentPopulation);
-            
-            // Prevent extinction
-            if (currentPopulation <= 0) {
-                ageCohorts.add(speciesProfile.getReproductionAge()); // Add one mature individual
-                currentPopulation = 1;
+            populationHistory.add(population);
+            if (limitReachedYear == 0 && engine.isLimitReached()) {
+                limitReachedYear = year;
+            }
+            if (notify) {
+                publish(new YearSnapshot(year, population, engine.getLastBirths(),
+                        engine.getLastDeaths(), engine.getLastBreeders()));
+            }
+            if (checkpointSink != null && year % checkpointInterval == 0 && year < simulationYears) {
+                checkpointSink.accept(SimulationCheckpoint.capture(this, engine, (ResumableRandom) random));
+                lastCheckpoint = year;
             }
         }
-        
+        int lastYear = populationHistory.size() - 1;
+        if (checkpointSink != null && cancelled && lastYear > lastCheckpoint && lastYear < simulationYears) {
+            checkpointSink.accept(SimulationCheckpoint.capture(this, engine, (ResumableRandom) random));
+        }
+
         calculateGrowthRate();
+        if (timed) {
+            recordMetrics(allocatedBefore, stepNanos);
+        }
+        if (notify) {
+            listeners.forEach(listener -> listener.onComplete(this));
+        }
     }
 
-    private int calculateBreedingPopulation(List<Integer> ageCohorts) {
-        int breedingFemales = 0;
-        for (int age : ageCohorts) {
-            if (age >= speciesProfile.getReproductionAge()) {
-                breedingFemales++;
-            }
+    private void recordMetrics(long allocatedBefore, long[] stepNanos) {
+        long allocatedAfter = SimulationMetrics.threadAllocatedBytes();
+        long allocated = allocatedBefore >= 0 && allocatedAfter >= 0 ? allocatedAfter - allocatedBefore : -1;
+        long[] population = new long[populationHistory.size()];
+        for (int i = 0; i < population.length; i++) {
+            population[i] = populationHistory.get(i);
         }
-        return (int)(breedingFemales * 0.5); // 50% are female
+        SimulationMetrics.recordRun(allocated, population, Arrays.copyOf(stepNanos, population.length));
     }
 
-    private int calculateNewOffspring(int breedingFemales) {
-        if (breedingFemales <= 0) return 0;
-        
-        int totalOffspring = 0;
-        double breedingProbability = 0.8; // 80% chance to breed
-        
-        for (int i = 0; i < breedingFemales; i++) {
-            if (Math.random() < breedingProbability) {
-                // Litter size with variation
-                double variation = 0.8 + Math.random() * 0.4;
-                totalOffspring += (int)(speciesProfile.getAvgLitterSize() * variation);
-            }
+    private void publish(YearSnapshot snapshot) {
+        for (SimulationListener listener : listeners) {
+            listener.onYear(snapshot);
         }
-        
-        return (int)(totalOffspring * speciesProfile.getSurvivalRate());
     }
 
-    private int applyAnnualMortality(List<Integer> ageCohorts) {
-        List<Integer> survivors = new ArrayList<>();
-        for (int age : ageCohorts) {
-            double survivalRate = speciesProfile.getSurvivalRate();
-            
-            // Age-specific adjustments
-            if (age < speciesProfile.getReproductionAge()) {
-                survivalRate *= 0.7; // Higher juvenile mortality
-            } else if (age > speciesProfile.getReproductionAge() * 3) {
-                survivalRate *= 0.6; // Higher elder mortality
-            }
-            
-            if (Math.random() < survivalRate) {
-                survivors.add(age);
-            }
+    // Runs saved with Java serialization hold Integer histories; widen them after reading
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        List raw = populationHistory;
+        for (int i = 0; i < raw.size(); i++) {
+            raw.set(i, ((Number) raw.get(i)).longValue());
         }
-        
-        ageCohorts.clear();
-        ageCohorts.addAll(survivors);
-        return survivors.size();
     }
 
     private void calculateGrowthRate() {
@@ -123,8 +251,8 @@ public class PopulationSimulation implements Serializable {
         int validYears = 0;
         
         for (int i = 1; i < populationHistory.size(); i++) {
-            int prev = populationHistory.get(i-1);
-            int current = populationHistory.get(i);
+            long prev = populationHistory.get(i-1);
+            long current = populationHistory.get(i);
             
             if (prev > 0) { // Only calculate if previous population wasn't zero
                 double growth = (current - prev) / (double)prev;
@@ -140,8 +268,13 @@ public class PopulationSimulation implements Serializable {
     public int getInitialPopulation() { return initialPopulation; }
     public int getSimulationYears() { return simulationYears; }
     public SpeciesProfile getSpeciesProfile() { return speciesProfile; }
-    public List<Integer> getPopulationHistory() { return populationHistory; }
-    public int getFinalPopulation() { 
+    public long getSeed() { return seed; }
+    // Runs saved before engines existed were simulated per individual
+    public SimulationMode getMode() { return mode == null ? SimulationMode.INDIVIDUAL : mode; }
+    public List<Long> getPopulationHistory() { return populationHistory; }
+    public boolean isPopulationLimitReached() { return limitReachedYear > 0; }
+    public int getLimitReachedYear() { return limitReachedYear; }
+    public long getFinalPopulation() { 
         return populationHistory.isEmpty() ? 0 : populationHistory.get(populationHistory.size()-1); 
     }
     public double getAverageGrowthRate() { return averageGrowthRate; }
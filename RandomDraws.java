@@ -0,0 +1,95 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+public class RandomDraws {
+    // Below this many trials a direct coin-flip loop is cheaper than anything clever
+    private static final int DIRECT_TRIALS_LIMIT = 32;
+    // Above this expected count the normal approximation is used
+    private static final double NORMAL_APPROXIMATION_MEAN = 30.0;
+
+    private RandomDraws() {
+    }
+
+    /**
+     * Derives seeds for independent parallel streams from one master seed.
+     * Each seed comes from its own split of the master generator, so worker i
+     * always gets the same stream for the same master seed.
+     */
+    public static long[] splitSeeds(long masterSeed, int streams) {
+        SplittableRandom master = new SplittableRandom(masterSeed);
+        long[] seeds = new long[streams];
+        for (int i = 0; i < streams; i++) {
+            seeds[i] = master.split().nextLong();
+        }
+        return seeds;
+    }
+
+    /**
+     * Number of successes in n independent trials with success probability p.
+     * Cost does not grow with n: small means use inversion, large means use
+     * a rounded normal approximation clamped to [0, n].
+     */
+    public static long binomial(RandomGenerator random, long n, double p) {
+        if (n <= 0 || p <= 0) return 0;
+        if (p >= 1) return n;
+        if (p > 0.5) return n - binomial(random, n, 1 - p);
+
+        if (n <= DIRECT_TRIALS_LIMIT) {
+            long successes = 0;
+            for (long i = 0; i < n; i++) {
+                if (random.nextDouble() < p) {
+                    successes++;
+                }
+            }
+            return successes;
+        }
+
+        double mean = n * p;
+        if (mean < NORMAL_APPROXIMATION_MEAN) {
+            // Inversion: walk the pmf until the cumulative mass passes u
+            double q = 1 - p;
+            double ratio = p / q;
+            double pmf = Math.exp(n * Math.log1p(-p));
+            double cumulative = pmf;
+            double u = random.nextDouble();
+            long k = 0;
+            while (u > cumulative && k < n) {
+                pmf *= ratio * (n - k) / (k + 1);
+                cumulative += pmf;
+                k++;
+                if (pmf < 1e-300) break; // remaining tail mass is negligible
+            }
+            return k;
+        }
+
+        double deviation = Math.sqrt(mean * (1 - p));
+        long draw = Math.round(mean + deviation * random.nextGaussian());
+        return Math.max(0, Math.min(n, draw));
+    }
+
+    /**
+     * Number of events in a Poisson process with the given expected count.
+     * Small means use inversion; large means use a rounded normal
+     * approximation clamped at 0, as for {@link #binomial}.
+     */
+    public static long poisson(RandomGenerator random, double mean) {
+        if (!(mean > 0)) return 0;
+
+        if (mean < NORMAL_APPROXIMATION_MEAN) {
+            // Inversion: walk the pmf until the cumulative mass passes u
+            double pmf = Math.exp(-mean);
+            double cumulative = pmf;
+            double u = random.nextDouble();
+            long k = 0;
+            while (u > cumulative) {
+                k++;
+                pmf *= mean / k;
+                cumulative += pmf;
+                if (pmf < 1e-300 && k > mean) break; // remaining tail mass is negligible
+            }
+            return k;
+        }
+
+        return Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+    }
+}
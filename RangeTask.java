@@ -0,0 +1,37 @@
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies an action to every index of [from, to) on a ForkJoinPool, splitting
+ * the range in halves until a piece holds at most {@code grain} indices.
+ */
+class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+    private final int grain;
+    private final transient IndexAction action;
+
+    RangeTask(int from, int to, int grain, IndexAction action) {
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+        this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grain) {
+            for (int i = from; i < to; i++) {
+                action.apply(i);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new RangeTask(from, middle, grain, action), new RangeTask(middle, to, grain, action));
+    }
+
+    interface IndexAction {
+        void apply(int index);
+    }
+}
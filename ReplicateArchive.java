@@ -0,0 +1,327 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-file columnar store for many replicate runs of one configuration.
+ *
+ * Runs are appended into fixed-size blocks. Inside a block each year is one
+ * contiguous column of primitive longs, one slot per run, so per-year
+ * statistics scan memory-mapped columns directly instead of loading every
+ * history onto the heap.
+ *
+ * Layout (big-endian): a header holding the magic "BPSA", version, run count,
+ * block capacity, points per run, data offset, initial population, the
+ * species profile, engine mode and batch seed, followed by blocks of
+ * (points x blockCapacity) longs.
+ *
+ * Appended runs reach the file through the mapping; {@link #sync()} forces
+ * them to disk before it writes the run count, so after a crash the header
+ * never counts a run whose data was lost.
+ */
+public class ReplicateArchive implements Closeable {
+    private static final int MAGIC = 0x42505341; // "BPSA"
+    private static final int VERSION = 2;
+    private static final int RUN_COUNT_OFFSET = 8;
+
+    private final FileChannel channel;
+    private final SpeciesProfile speciesProfile;
+    private final int initialPopulation;
+    private final SimulationMode mode;
+    private final long batchSeed;
+    private final int points;
+    private final int blockCapacity;
+    private final long dataOffset;
+    private final List<MappedByteBuffer> blocks = new ArrayList<>();
+    private int runCount;
+    // Runs counted in the file's header
+    private int syncedCount;
+
+    private ReplicateArchive(FileChannel channel, SpeciesProfile speciesProfile, int initialPopulation,
+                             SimulationMode mode, long batchSeed, int points, int blockCapacity, long dataOffset,
+                             int runCount) {
+        this.channel = channel;
+        this.speciesProfile = speciesProfile;
+        this.initialPopulation = initialPopulation;
+        this.mode = mode;
+        this.batchSeed = batchSeed;
+        this.points = points;
+        this.blockCapacity = blockCapacity;
+        this.dataOffset = dataOffset;
+        this.runCount = runCount;
+        this.syncedCount = runCount;
+    }
+
+    public static ReplicateArchive create(Path path, SpeciesProfile profile, int initialPopulation,
+                                          int simulationYears, SimulationMode mode, long batchSeed,
+                                          int blockCapacity) throws IOException {
+        if (blockCapacity < 1) {
+            throw new IllegalArgumentException("Block capacity must be at least 1");
+        }
+        byte[] name = profile.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] modeName = mode.name().getBytes(StandardCharsets.UTF_8);
+        int headerSize = 28 + 8 * 3 + 4 + 4 + name.length + 4 + modeName.length + 8;
+        long dataOffset = (headerSize + 7) & ~7L; // keep columns 8-byte aligned
+        int points = simulationYears + 1;
+
+        ByteBuffer header = ByteBuffer.allocate((int) dataOffset);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(0); // run count
+        header.putInt(blockCapacity);
+        header.putInt(points);
+        header.putInt((int) dataOffset);
+        header.putInt(initialPopulation);
+        header.putDouble(profile.getAvgLitterSize());
+        header.putDouble(profile.getAvgLittersPerYear());
+        header.putDouble(profile.getSurvivalRate());
+        header.putInt(profile.getReproductionAge());
+        header.putInt(name.length);
+        header.put(name);
+        header.putInt(modeName.length);
+        header.put(modeName);
+        header.putLong(batchSeed);
+        header.position(0);
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            writeFully(channel, header, 0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new ReplicateArchive(channel, profile, initialPopulation, mode, batchSeed, points, blockCapacity,
+                dataOffset, 0);
+    }
+
+    public static ReplicateArchive open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer fixed = ByteBuffer.allocate(28);
+            readFully(channel, fixed, 0);
+            fixed.flip();
+            if (fixed.getInt() != MAGIC) {
+                throw new IOException("Not a replicate archive");
+            }
+            int version = fixed.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported replicate archive version " + version);
+            }
+            int runCount = fixed.getInt();
+            int blockCapacity = fixed.getInt();
+            int points = fixed.getInt();
+            int dataOffset = fixed.getInt();
+            int initialPopulation = fixed.getInt();
+
+            ByteBuffer profileBytes = ByteBuffer.allocate(dataOffset - 28);
+            readFully(channel, profileBytes, 28);
+            profileBytes.flip();
+            double litterSize = profileBytes.getDouble();
+            double littersPerYear = profileBytes.getDouble();
+            double survivalRate = profileBytes.getDouble();
+            int reproductionAge = profileBytes.getInt();
+            byte[] name = new byte[profileBytes.getInt()];
+            profileBytes.get(name);
+            SpeciesProfile profile = new SpeciesProfile(new String(name, StandardCharsets.UTF_8), litterSize,
+                    littersPerYear, survivalRate, reproductionAge);
+            byte[] modeName = new byte[profileBytes.getInt()];
+            profileBytes.get(modeName);
+            SimulationMode mode = SimulationMode.valueOf(new String(modeName, StandardCharsets.UTF_8));
+            long batchSeed = profileBytes.getLong();
+
+            ReplicateArchive archive = new ReplicateArchive(channel, profile, initialPopulation, mode, batchSeed,
+                    points, blockCapacity, dataOffset, runCount);
+            int usedBlocks = (runCount + blockCapacity - 1) / blockCapacity;
+            for (int i = 0; i < usedBlocks; i++) {
+                archive.mapBlock(i);
+            }
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Corrupt replicate archive", e);
+        }
+    }
+
+    /** Appends one run; it is on disk and counted in the file after the next {@link #sync()} or close. */
+    public synchronized void append(long[] history) throws IOException {
+        if (history.length != points) {
+            throw new IllegalArgumentException("Expected " + points + " years of history but got " + history.length);
+        }
+        int block = runCount / blockCapacity;
+        int slot = runCount % blockCapacity;
+        if (block == blocks.size()) {
+            mapBlock(block);
+        }
+        MappedByteBuffer buffer = blocks.get(block);
+        for (int year = 0; year < points; year++) {
+            buffer.putLong((int) (((long) year * blockCapacity + slot) * Long.BYTES), history[year]);
+        }
+        runCount++;
+    }
+
+    /** Forces the runs appended since the last sync to disk, then counts them in the header. */
+    public synchronized void sync() throws IOException {
+        if (syncedCount == runCount) {
+            return;
+        }
+        for (int block = syncedCount / blockCapacity; block < blocks.size(); block++) {
+            blocks.get(block).force();
+        }
+        ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).putInt(0, runCount);
+        writeFully(channel, count, RUN_COUNT_OFFSET);
+        channel.force(false);
+        syncedCount = runCount;
+    }
+
+    public void append(PopulationSimulation simulation) throws IOException {
+        List<Long> history = simulation.getPopulationHistory();
+        long[] values = new long[history.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = history.get(i);
+        }
+        append(values);
+    }
+
+    public synchronized long get(int run, int year) {
+        checkRun(run);
+        long offset = ((long) year * blockCapacity + run % blockCapacity) * Long.BYTES;
+        return blocks.get(run / blockCapacity).getLong((int) offset);
+    }
+
+    public synchronized double mean(int year) {
+        if (runCount == 0) return 0;
+        double sum = 0;
+        for (int block = 0; block < blocks.size(); block++) {
+            MappedByteBuffer buffer = blocks.get(block);
+            int runs = runsInBlock(block);
+            long base = (long) year * blockCapacity * Long.BYTES;
+            for (int slot = 0; slot < runs; slot++) {
+                sum += buffer.getLong((int) (base + (long) slot * Long.BYTES));
+            }
+        }
+        return sum / runCount;
+    }
+
+    // Sample variance, two passes over the mapped column
+    public synchronized double variance(int year) {
+        if (runCount < 2) return 0;
+        double mean = mean(year);
+        double squares = 0;
+        for (int block = 0; block < blocks.size(); block++) {
+            MappedByteBuffer buffer = blocks.get(block);
+            int runs = runsInBlock(block);
+            long base = (long) year * blockCapacity * Long.BYTES;
+            for (int slot = 0; slot < runs; slot++) {
+                double deviation = buffer.getLong((int) (base + (long) slot * Long.BYTES)) - mean;
+                squares += deviation * deviation;
+            }
+        }
+        return squares / (runCount - 1);
+    }
+
+    /**
+     * Percentile of one year across all runs. Unlike the mean and variance
+     * this needs the column sorted, so it copies that single column.
+     */
+    public synchronized double percentile(int year, double fraction) {
+        if (runCount == 0) return 0;
+        return percentile(sortedColumn(year), fraction);
+    }
+
+    /** Mean, variance and the 5th/50th/95th percentiles of every year, computed from the archived runs. */
+    public synchronized MonteCarloResult summarize() {
+        MonteCarloResult result = new MonteCarloResult(speciesProfile, initialPopulation, points - 1,
+                runCount, batchSeed);
+        if (runCount == 0) {
+            return result;
+        }
+        for (int year = 0; year < points; year++) {
+            long[] column = sortedColumn(year);
+            result.setYear(year, mean(year), variance(year),
+                    percentile(column, 0.05), percentile(column, 0.50), percentile(column, 0.95));
+        }
+        return result;
+    }
+
+    private long[] sortedColumn(int year) {
+        long[] column = new long[runCount];
+        int index = 0;
+        for (int block = 0; block < blocks.size(); block++) {
+            MappedByteBuffer buffer = blocks.get(block);
+            int runs = runsInBlock(block);
+            long base = (long) year * blockCapacity * Long.BYTES;
+            for (int slot = 0; slot < runs; slot++) {
+                column[index++] = buffer.getLong((int) (base + (long) slot * Long.BYTES));
+            }
+        }
+        Arrays.sort(column);
+        return column;
+    }
+
+    private static double percentile(long[] column, double fraction) {
+        double rank = fraction * (column.length - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, column.length - 1);
+        return column[lower] + (rank - lower) * (column[upper] - column[lower]);
+    }
+
+    public SpeciesProfile getSpeciesProfile() { return speciesProfile; }
+    public int getInitialPopulation() { return initialPopulation; }
+    public SimulationMode getMode() { return mode; }
+    public long getBatchSeed() { return batchSeed; }
+    public int getSimulationYears() { return points - 1; }
+    public synchronized int getRunCount() { return runCount; }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            blocks.clear();
+            channel.close();
+        }
+    }
+
+    private void mapBlock(int block) throws IOException {
+        long blockBytes = (long) points * blockCapacity * Long.BYTES;
+        if (blockBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Block too large to map; use a smaller block capacity");
+        }
+        blocks.add(channel.map(FileChannel.MapMode.READ_WRITE, dataOffset + block * blockBytes, blockBytes));
+    }
+
+    private int runsInBlock(int block) {
+        return Math.min(blockCapacity, runCount - block * blockCapacity);
+    }
+
+    private void checkRun(int run) {
+        if (run < 0 || run >= runCount) {
+            throw new IndexOutOfBoundsException("Run " + run + " of " + runCount);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of replicate archive");
+            }
+            position += read;
+        }
+    }
+}
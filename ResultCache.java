@@ -0,0 +1,199 @@
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finished runs keyed by a SHA-256 of everything that decides their history:
+ * species profile, initial population, years, engine mode, density
+ * dependence and seed. A repeated seeded request is answered from a bounded
+ * in-memory LRU, or from the disk tier under simulations/cache/ that
+ * survives restarts, instead of being simulated again.
+ *
+ * Bump {@link #RESULTS_VERSION} whenever an engine change alters the history
+ * a configuration produces, so stale results are never served.
+ */
+public class ResultCache {
+    private static final String CACHE_DIRECTORY = "simulations" + File.separator + "cache";
+    private static final String EXTENSION = ".sim";
+    // 2: entries carry the year the population ceiling was hit; 3: monthly density dependence
+    private static final int RESULTS_VERSION = 3;
+    private static final int MEMORY_CAPACITY = 64;
+    // Least recently used files past this many are deleted
+    private static final int DISK_CAPACITY = 1024;
+
+    private final Path directory;
+    private final int diskCapacity;
+    private final Map<String, PopulationSimulation> memory;
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder diskHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public ResultCache() {
+        this(Path.of(CACHE_DIRECTORY), MEMORY_CAPACITY, DISK_CAPACITY);
+    }
+
+    public ResultCache(Path directory, int memoryCapacity, int diskCapacity) {
+        if (memoryCapacity < 0 || diskCapacity < 0) {
+            throw new IllegalArgumentException("Cache capacities cannot be negative");
+        }
+        this.directory = directory;
+        this.diskCapacity = diskCapacity;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PopulationSimulation> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+    }
+
+    /** Runs resumed or forked from a checkpoint, or drawing from their own random source, are not keyed. */
+    public static boolean isCacheable(PopulationSimulation simulation) {
+        return simulation.getResumedYear() == 0 && !simulation.hasRandomSource();
+    }
+
+    /** Hex SHA-256 of the request's configuration. */
+    public static String key(PopulationSimulation request) {
+        SpeciesProfile profile = request.getSpeciesProfile();
+        DensityDependence density = request.getDensityDependence();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(RESULTS_VERSION);
+            out.writeUTF(profile.getName());
+            out.writeDouble(profile.getAvgLitterSize());
+            out.writeDouble(profile.getAvgLittersPerYear());
+            out.writeDouble(profile.getSurvivalRate());
+            out.writeInt(profile.getReproductionAge());
+            out.writeInt(request.getInitialPopulation());
+            out.writeInt(request.getSimulationYears());
+            out.writeUTF(request.getMode().name());
+            out.writeUTF(density.getModel().name());
+            out.writeLong(density.getCarryingCapacity());
+            out.writeLong(request.getSeed());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory streams do not fail
+        }
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes.toByteArray()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required on every Java platform", e);
+        }
+    }
+
+    /** The finished run for this request's configuration, or null on a miss. */
+    public synchronized PopulationSimulation get(PopulationSimulation request) {
+        if (!isCacheable(request)) {
+            misses.increment();
+            return null;
+        }
+        String key = key(request);
+        PopulationSimulation cached = memory.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return cached;
+        }
+        Path file = directory.resolve(key + EXTENSION);
+        if (Files.exists(file)) {
+            try {
+                cached = SimulationFile.read(file);
+                file.toFile().setLastModified(System.currentTimeMillis());
+                memory.put(key, cached);
+                diskHits.increment();
+                return cached;
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable cache entry " + file.getFileName() + ": " + e.getMessage());
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Stores a finished run; cancelled or uncacheable runs are ignored. */
+    public synchronized void put(PopulationSimulation simulation) {
+        if (!isCacheable(simulation) || simulation.isCancelled()
+                || simulation.getPopulationHistory().size() != simulation.getSimulationYears() + 1) {
+            return;
+        }
+        String key = key(simulation);
+        // A copy, so later changes to the caller's simulation cannot alter the cached result
+        PopulationSimulation copy = PopulationSimulation.restore(simulation.getSpeciesProfile(),
+                simulation.getInitialPopulation(), simulation.getSimulationYears(), simulation.getMode(),
+                simulation.getSeed(), simulation.getPopulationHistory(), simulation.getLimitReachedYear());
+        copy.setDensityDependence(simulation.getDensityDependence());
+        memory.put(key, copy);
+        if (diskCapacity == 0) {
+            return;
+        }
+        Path target = directory.resolve(key + EXTENSION);
+        Path temp = directory.resolve(key + ".tmp");
+        try {
+            Files.createDirectories(directory);
+            SimulationFile.write(simulation, temp);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            trimDisk();
+        } catch (IOException e) {
+            System.err.println("Error writing result cache entry: " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // a leftover temp file is never read as a cache entry
+            }
+        }
+    }
+
+    /** Returns the cached result for the request, running and storing it on a miss. */
+    public PopulationSimulation getOrRun(PopulationSimulation request) {
+        PopulationSimulation cached = get(request);
+        if (cached != null) {
+            return cached;
+        }
+        request.run();
+        put(request);
+        return request;
+    }
+
+    public synchronized void clear() {
+        memory.clear();
+        File[] files = directory.toFile().listFiles((d, name) -> name.endsWith(EXTENSION));
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+    }
+
+    // Files are touched on every hit, so the oldest modification times are the least recently used
+    private void trimDisk() {
+        File[] files = directory.toFile().listFiles((d, name) -> name.endsWith(EXTENSION));
+        if (files == null || files.length <= diskCapacity) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - diskCapacity; i++) {
+            files[i].delete();
+        }
+    }
+
+    public long getMemoryHits() { return memoryHits.sum(); }
+    public long getDiskHits() { return diskHits.sum(); }
+    public long getHits() { return memoryHits.sum() + diskHits.sum(); }
+    public long getMisses() { return misses.sum(); }
+
+    @Override
+    public String toString() {
+        return String.format("%,d hits (%,d memory, %,d disk), %,d misses",
+                getHits(), getMemoryHits(), getDiskHits(), getMisses());
+    }
+}
@@ -0,0 +1,43 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Drop-in twin of {@code new SplittableRandom(seed)} whose whole state is one
+ * readable long, so a checkpoint can store it and a resumed run can pick the
+ * stream up exactly where it stopped. It produces the same values as
+ * SplittableRandom for the same seed, so seeded runs are unchanged.
+ */
+final class ResumableRandom implements RandomGenerator {
+    // SplittableRandom's gamma for generators built from a seed
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long state;
+
+    ResumableRandom(long state) {
+        this.state = state;
+    }
+
+    long getState() { return state; }
+
+    void setState(long state) { this.state = state; }
+
+    @Override
+    public long nextLong() {
+        return mix64(state += GOLDEN_GAMMA);
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(state += GOLDEN_GAMMA);
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+}
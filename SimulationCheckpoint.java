@@ -0,0 +1,205 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot of a run in flight at the end of one year: its parameters, the
+ * history so far, the engine's age structure and the random generator's
+ * state. {@link #resume()} continues the run exactly where the snapshot was
+ * taken; {@link #fork} starts a what-if branch from the same year without
+ * recomputing the shared prefix.
+ *
+ * Layout (big-endian): magic "BPSC", version byte, species profile, run
+ * parameters, density dependence, limit-reached year, generator state, the
+ * history up to the checkpoint year, then the engine state as written by
+ * {@link PopulationEngine#saveState}.
+ */
+public class SimulationCheckpoint {
+    private static final int MAGIC = 0x42505343; // "BPSC"
+    private static final byte VERSION = 1;
+
+    private final SpeciesProfile speciesProfile;
+    private final int initialPopulation;
+    private final int simulationYears;
+    private final SimulationMode mode;
+    private final long seed;
+    private final DensityDependence densityDependence;
+    private final int limitReachedYear;
+    private final long randomState;
+    // history[year] for years 0 .. checkpoint year
+    private final long[] history;
+    private final byte[] engineState;
+
+    private SimulationCheckpoint(SpeciesProfile speciesProfile, int initialPopulation, int simulationYears,
+                                 SimulationMode mode, long seed, DensityDependence densityDependence,
+                                 int limitReachedYear, long randomState, long[] history, byte[] engineState) {
+        this.speciesProfile = speciesProfile;
+        this.initialPopulation = initialPopulation;
+        this.simulationYears = simulationYears;
+        this.mode = mode;
+        this.seed = seed;
+        this.densityDependence = densityDependence;
+        this.limitReachedYear = limitReachedYear;
+        this.randomState = randomState;
+        this.history = history;
+        this.engineState = engineState;
+    }
+
+    // Copies everything, so the run can keep going while the snapshot is written
+    static SimulationCheckpoint capture(PopulationSimulation simulation, PopulationEngine engine,
+                                        ResumableRandom random) {
+        List<Long> populationHistory = simulation.getPopulationHistory();
+        long[] history = new long[populationHistory.size()];
+        for (int i = 0; i < history.length; i++) {
+            history[i] = populationHistory.get(i);
+        }
+        ByteArrayOutputStream state = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(state)) {
+            engine.saveState(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory streams do not fail
+        }
+        return new SimulationCheckpoint(simulation.getSpeciesProfile(), simulation.getInitialPopulation(),
+                simulation.getSimulationYears(), simulation.getMode(), simulation.getSeed(),
+                simulation.getDensityDependence(), simulation.getLimitReachedYear(), random.getState(),
+                history, state.toByteArray());
+    }
+
+    /** A simulation that continues this run from the checkpoint year with the same random stream. */
+    public PopulationSimulation resume() {
+        PopulationSimulation simulation = new PopulationSimulation(speciesProfile, initialPopulation,
+                simulationYears, mode, seed);
+        simulation.setDensityDependence(densityDependence);
+        simulation.resumeFrom(this, randomState);
+        return simulation;
+    }
+
+    /**
+     * A what-if branch that shares this run's history up to the checkpoint
+     * year and continues with other parameters and a fresh random stream
+     * from {@code seed}. The age structure carries over, so the branch must
+     * keep the reproduction age. Re-running a saved branch from scratch
+     * replays its seed from year 0, not the shared prefix.
+     */
+    public PopulationSimulation fork(SpeciesProfile profile, DensityDependence density, int simulationYears,
+                                     long seed) {
+        if (profile.getReproductionAge() != speciesProfile.getReproductionAge()) {
+            throw new IllegalArgumentException("A fork must keep the reproduction age of "
+                    + speciesProfile.getReproductionAge() + " months");
+        }
+        if (simulationYears <= getYear()) {
+            throw new IllegalArgumentException("A fork from year " + getYear() + " must run past that year");
+        }
+        PopulationSimulation simulation = new PopulationSimulation(profile, initialPopulation,
+                simulationYears, mode, seed);
+        simulation.setDensityDependence(density);
+        simulation.resumeFrom(this, seed);
+        return simulation;
+    }
+
+    void restoreEngine(PopulationEngine engine) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(engineState))) {
+            engine.restoreState(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Checkpoint does not fit the " + mode + " engine: " + e.getMessage(), e);
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeUTF(speciesProfile.getName());
+            out.writeDouble(speciesProfile.getAvgLitterSize());
+            out.writeDouble(speciesProfile.getAvgLittersPerYear());
+            out.writeDouble(speciesProfile.getSurvivalRate());
+            out.writeInt(speciesProfile.getReproductionAge());
+            out.writeInt(initialPopulation);
+            out.writeInt(simulationYears);
+            out.writeUTF(mode.name());
+            out.writeLong(seed);
+            out.writeUTF(densityDependence.getModel().name());
+            out.writeLong(densityDependence.getCarryingCapacity());
+            out.writeInt(limitReachedYear);
+            out.writeLong(randomState);
+            out.writeInt(history.length);
+            for (long population : history) {
+                out.writeLong(population);
+            }
+            out.writeInt(engineState.length);
+            out.write(engineState);
+        }
+    }
+
+    public static SimulationCheckpoint read(Path path) throws IOException {
+        long fileSize = Files.size(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint file");
+            }
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            try {
+                SpeciesProfile profile = new SpeciesProfile(in.readUTF(), in.readDouble(), in.readDouble(),
+                        in.readDouble(), in.readInt());
+                int initialPopulation = in.readInt();
+                int simulationYears = in.readInt();
+                SimulationMode mode = SimulationMode.valueOf(in.readUTF());
+                long seed = in.readLong();
+                DensityDependence density = DensityDependence.of(
+                        DensityDependence.Model.valueOf(in.readUTF()), in.readLong());
+                int limitReachedYear = in.readInt();
+                long randomState = in.readLong();
+                // Lengths are checked before anything is allocated for them
+                int points = in.readInt();
+                if (points < 1 || points > simulationYears + 1L) {
+                    throw new IOException("Corrupt checkpoint file: " + points + " years of history in a "
+                            + simulationYears + "-year run");
+                }
+                long[] history = new long[points];
+                for (int i = 0; i < history.length; i++) {
+                    history[i] = in.readLong();
+                }
+                int stateLength = in.readInt();
+                if (stateLength < 0 || stateLength > fileSize) {
+                    throw new IOException("Corrupt checkpoint file: engine state of " + stateLength + " bytes");
+                }
+                byte[] engineState = new byte[stateLength];
+                in.readFully(engineState);
+                return new SimulationCheckpoint(profile, initialPopulation, simulationYears, mode, seed,
+                        density, limitReachedYear, randomState, history, engineState);
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt checkpoint file: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public int getYear() { return history.length - 1; }
+    public SpeciesProfile getSpeciesProfile() { return speciesProfile; }
+    public int getSimulationYears() { return simulationYears; }
+    public SimulationMode getMode() { return mode; }
+    public long getSeed() { return seed; }
+    public DensityDependence getDensityDependence() { return densityDependence; }
+    public int getLimitReachedYear() { return limitReachedYear; }
+
+    public long getPopulation() { return history[history.length - 1]; }
+
+    public List<Long> getPopulationHistory() {
+        List<Long> copy = new ArrayList<>(history.length);
+        for (long population : history) {
+            copy.add(population);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,194 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Versioned binary .sim format.
+ *
+ * Layout (big-endian): magic "BPSM", version byte, species profile
+ * (name, litter size, litters per year, survival rate, reproduction age),
+ * run parameters (initial population, years, mode, seed), density
+ * dependence (model, carrying capacity; version 2 on), the year the
+ * population ceiling was first hit (0 if never; version 3 on), history
+ * length, then the history as zigzag varint deltas from the previous year.
+ *
+ * Files written by the old ObjectOutputStream-based saver are still readable
+ * through {@link #read(Path)}, which recognises the Java serialization header.
+ */
+public class SimulationFile {
+    private static final int MAGIC = 0x4250534D; // "BPSM"
+    private static final byte VERSION = 3;
+    private static final short JAVA_SERIALIZATION_MAGIC = (short) 0xACED;
+
+    private SimulationFile() {
+    }
+
+    public static void write(PopulationSimulation simulation, Path path) throws IOException {
+        SpeciesProfile profile = simulation.getSpeciesProfile();
+        List<Long> history = simulation.getPopulationHistory();
+        byte[] name = profile.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] mode = simulation.getMode().name().getBytes(StandardCharsets.UTF_8);
+        DensityDependence density = simulation.getDensityDependence();
+        byte[] densityModel = density.getModel().name().getBytes(StandardCharsets.UTF_8);
+
+        // Fixed-size part plus worst-case 10 bytes per varint
+        ByteBuffer buffer = ByteBuffer.allocate(80 + name.length + mode.length + densityModel.length
+                + history.size() * 10);
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        putString(buffer, name);
+        buffer.putDouble(profile.getAvgLitterSize());
+        buffer.putDouble(profile.getAvgLittersPerYear());
+        buffer.putDouble(profile.getSurvivalRate());
+        buffer.putInt(profile.getReproductionAge());
+        buffer.putInt(simulation.getInitialPopulation());
+        buffer.putInt(simulation.getSimulationYears());
+        putString(buffer, mode);
+        buffer.putLong(simulation.getSeed());
+        putString(buffer, densityModel);
+        buffer.putLong(density.getCarryingCapacity());
+        buffer.putInt(simulation.getLimitReachedYear());
+        buffer.putInt(history.size());
+        long previous = 0;
+        for (long value : history) {
+            putVarLong(buffer, zigzag(value - previous));
+            previous = value;
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static PopulationSimulation read(Path path) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        if (isLegacy(bytes)) {
+            return readLegacy(bytes);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.remaining() < 5 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a simulation file");
+        }
+        byte version = buffer.get();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported simulation file version " + version);
+        }
+
+        try {
+            String name = getString(buffer);
+            double litterSize = buffer.getDouble();
+            double littersPerYear = buffer.getDouble();
+            double survivalRate = buffer.getDouble();
+            int reproductionAge = buffer.getInt();
+            int initialPopulation = buffer.getInt();
+            int simulationYears = buffer.getInt();
+            SimulationMode mode = SimulationMode.valueOf(getString(buffer));
+            long seed = buffer.getLong();
+            DensityDependence density = DensityDependence.NONE;
+            if (version >= 2) {
+                DensityDependence.Model model = DensityDependence.Model.valueOf(getString(buffer));
+                density = DensityDependence.of(model, buffer.getLong());
+            }
+            int limitReachedYear = version >= 3 ? buffer.getInt() : 0;
+            int length = buffer.getInt();
+            // Every varint takes at least one byte, so a longer history cannot be in the file
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Corrupt simulation file: history length " + length);
+            }
+
+            List<Long> history = new ArrayList<>(length);
+            long previous = 0;
+            for (int i = 0; i < length; i++) {
+                previous += unzigzag(getVarLong(buffer));
+                history.add(previous);
+            }
+
+            SpeciesProfile profile = new SpeciesProfile(name, litterSize, littersPerYear,
+                    survivalRate, reproductionAge);
+            PopulationSimulation simulation = PopulationSimulation.restore(profile, initialPopulation,
+                    simulationYears, mode, seed, history, limitReachedYear);
+            simulation.setDensityDependence(density);
+            return simulation;
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt simulation file: " + e.getMessage(), e);
+        }
+    }
+
+    public static boolean isLegacy(Path path) throws IOException {
+        byte[] header = new byte[2];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(header);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the header is filled or the file ends
+            }
+        }
+        return isLegacy(header);
+    }
+
+    private static boolean isLegacy(byte[] bytes) {
+        return bytes.length >= 2 && ByteBuffer.wrap(bytes).getShort() == JAVA_SERIALIZATION_MAGIC;
+    }
+
+    // Files saved with ObjectOutputStream before the binary format existed
+    private static PopulationSimulation readLegacy(byte[] bytes) throws IOException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (PopulationSimulation) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unreadable legacy simulation file: " + e.getMessage(), e);
+        }
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] utf8) {
+        if (utf8.length > 0xFFFF) {
+            throw new IllegalArgumentException("Text too long for a simulation file");
+        }
+        buffer.putShort((short) utf8.length);
+        buffer.put(utf8);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * Receives each year of a run as soon as it is computed. Callbacks run on the
+ * simulating thread; a listener can stop the run early with
+ * PopulationSimulation.cancel().
+ */
+public interface SimulationListener {
+    default void onStart(PopulationSimulation simulation) {
+    }
+
+    void onYear(YearSnapshot snapshot);
+
+    default void onComplete(PopulationSimulation simulation) {
+    }
+}
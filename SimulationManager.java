@@ -1,76 +1,559 @@
 import java.io.*;
-import java.util.HashMap;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
 
-public class SimulationManager {
+/**
+ * Saved simulations, replicate archives and checkpoints under simulations/,
+ * or under the directory passed to the constructor.
+ *
+ * Saves are write-behind: saveSimulation queues the run and returns, and one
+ * background writer stores queued runs in batches, rewriting the index once
+ * per batch. Every file is written to a temp file, forced to disk and renamed
+ * over the old one, so a crash never leaves a truncated .sim behind. The
+ * queue is bounded; when it is full, savers wait for the writer. Call
+ * {@link #close()} before exiting so queued saves are not lost.
+ */
+public class SimulationManager implements AutoCloseable {
     private static final String SAVE_DIRECTORY = "simulations";
-    private final Map<String, PopulationSimulation> savedSimulations = new HashMap<>();
+    private static final String INDEX_FILE = "simulations.idx";
+    private static final String ARCHIVE_EXTENSION = ".simarchive";
+    // One folder per run under this one, one <year>.ckpt file per checkpoint
+    private static final String CHECKPOINT_DIRECTORY = "checkpoints";
+    private static final String CHECKPOINT_EXTENSION = ".ckpt";
+    // Replicates per archive block; each block maps years x capacity longs
+    private static final int ARCHIVE_BLOCK_CAPACITY = 1024;
+    private static final int INDEX_VERSION = 1;
+    // Full runs kept in memory after being viewed or saved
+    private static final int CACHE_CAPACITY = 16;
+    // Saves waiting for the writer before saveSimulation blocks, and saves written per index update
+    private static final int WRITE_QUEUE_CAPACITY = 256;
+    private static final int WRITE_BATCH = 64;
+    // Queued by close(); fileStem never produces '*', so no save name can match it
+    private static final String STOP_WRITER = "*stop*";
+
+    private final File directory;
+    private final Map<String, SimulationSummary> index = new ConcurrentSkipListMap<>();
+    private final Map<String, PopulationSimulation> recentSimulations;
+    // Newest unwritten run per save name; the queue holds each name once while it is pending
+    private final Map<String, PopulationSimulation> pendingWrites = new ConcurrentHashMap<>();
+    private final BlockingQueue<String> writeQueue = new ArrayBlockingQueue<>(WRITE_QUEUE_CAPACITY);
+    private final Thread writer;
+    private volatile boolean closed;
+    // Set when the writer exits, normally or not; writerError is what killed it, if anything
+    private volatile boolean writerStopped;
+    private volatile Throwable writerError;
 
     public SimulationManager() {
-        File dir = new File(SAVE_DIRECTORY);
-        if (!dir.exists()) {
-            dir.mkdir();
+        this(Path.of(SAVE_DIRECTORY));
+    }
+
+    public SimulationManager(Path directory) {
+        this(directory, CACHE_CAPACITY);
+    }
+
+    // A cache capacity of 0 makes every load read its file, as benchmarks of the load path need
+    SimulationManager(Path directory, int cacheCapacity) {
+        this.directory = directory.toFile();
+        this.recentSimulations = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PopulationSimulation> eldest) {
+                return size() > cacheCapacity;
+            }
+        });
+        if (!this.directory.exists()) {
+            this.directory.mkdirs();
         }
-        loadSavedSimulations();
+        loadIndex();
+        writer = new Thread(this::writeLoop, "simulation-writer");
+        writer.setDaemon(true);
+        writer.start();
     }
 
+    /**
+     * Queues the run for the background writer and returns without waiting
+     * for the disk. Saving a name again before it is written only writes the
+     * newest run.
+     */
     public void saveSimulation(PopulationSimulation simulation, String name) {
+        if (closed) {
+            throw new IllegalStateException("Simulation manager is closed");
+        }
+        if (writerStopped) {
+            throw writerStoppedError();
+        }
+        String key = fileStem(name);
+        recentSimulations.put(key, simulation);
+        if (pendingWrites.put(key, simulation) == null) {
+            boolean queued;
+            try {
+                queued = enqueue(key);
+            } catch (InterruptedException e) {
+                // Only our own run; a newer save of the name may have replaced it meanwhile
+                pendingWrites.remove(key, simulation);
+                Thread.currentThread().interrupt();
+                System.err.println("Save of " + key + " interrupted");
+                return;
+            }
+            if (!queued) {
+                pendingWrites.remove(key, simulation);
+                throw writerStoppedError();
+            }
+        }
+        System.out.println("Saving simulation as: " + key);
+    }
+
+    /**
+     * Blocks until every save queued so far is on disk. Throws
+     * IllegalStateException if the writer has died with saves still pending.
+     */
+    public void flush() {
+        synchronized (pendingWrites) {
+            while (!pendingWrites.isEmpty()) {
+                if (writerStopped) {
+                    throw writerStoppedError();
+                }
+                try {
+                    pendingWrites.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Writes every queued save, then stops the background writer. */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
         try {
-            File file = new File(SAVE_DIRECTORY + File.separator + name.replaceAll("[^a-zA-Z0-9]", "_") + ".sim");
-            try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(file))) {
-                oos.writeObject(simulation);
-                savedSimulations.put(name, simulation);
+            enqueue(STOP_WRITER);
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Blocks while the queue is full, but gives up once the writer has stopped
+    private boolean enqueue(String key) throws InterruptedException {
+        while (!writeQueue.offer(key, 1, TimeUnit.SECONDS)) {
+            if (writerStopped) {
+                return false;
             }
-            System.out.println("Simulation saved successfully as: " + name);
-        } catch (IOException e) {
-            System.err.println("Error saving simulation: " + e.getMessage());
         }
+        return true;
     }
 
+    private IllegalStateException writerStoppedError() {
+        return new IllegalStateException("Simulation writer has stopped; " + pendingWrites.size()
+                + " saves were not written", writerError);
+    }
+
+    private void writeLoop() {
+        try {
+            writeBatches();
+        } catch (RuntimeException | Error e) {
+            writerError = e;
+            throw e; // reported by the thread's uncaught exception handler
+        } finally {
+            // Wakes flush() so it can report the saves that will never be written
+            synchronized (pendingWrites) {
+                writerStopped = true;
+                pendingWrites.notifyAll();
+            }
+        }
+    }
+
+    private void writeBatches() {
+        List<String> batch = new ArrayList<>(WRITE_BATCH);
+        while (true) {
+            try {
+                batch.add(writeQueue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            writeQueue.drainTo(batch, WRITE_BATCH - 1);
+            boolean stop = batch.remove(STOP_WRITER);
+            for (String key : batch) {
+                writePending(key);
+            }
+            batch.clear();
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                System.err.println("Error writing simulation index: " + e.getMessage());
+            }
+            synchronized (pendingWrites) {
+                pendingWrites.notifyAll();
+            }
+            if (stop) {
+                return;
+            }
+        }
+    }
+
+    private void writePending(String key) {
+        PopulationSimulation simulation = pendingWrites.get(key);
+        while (simulation != null) {
+            PopulationSimulation written = simulation;
+            File file = simulationFile(key);
+            try {
+                boolean timed = SimulationMetrics.isEnabled();
+                long start = timed ? System.nanoTime() : 0;
+                writeDurably(file.toPath(), path -> SimulationFile.write(written, path));
+                SimulationMetrics.lap(timed, SimulationMetrics.Phase.SAVE, start);
+                index.put(key, summarize(key, written, file));
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Error saving simulation " + key + ": " + e.getMessage());
+            }
+            if (pendingWrites.remove(key, written)) {
+                return;
+            }
+            // Saved again while this version was being written
+            simulation = pendingWrites.get(key);
+        }
+    }
+
+    // Histories are read from disk only when a run is actually opened
     public PopulationSimulation loadSimulation(String name) {
-        return savedSimulations.get(name);
+        String key = fileStem(name);
+        PopulationSimulation sim = pendingWrites.get(key);
+        if (sim == null) {
+            sim = recentSimulations.get(key);
+        }
+        if (sim != null) {
+            return sim;
+        }
+        if (!index.containsKey(key)) {
+            return null;
+        }
+        try {
+            boolean timed = SimulationMetrics.isEnabled();
+            long start = timed ? System.nanoTime() : 0;
+            sim = SimulationFile.read(simulationFile(key).toPath());
+            SimulationMetrics.lap(timed, SimulationMetrics.Phase.LOAD, start);
+            recentSimulations.put(key, sim);
+            return sim;
+        } catch (IOException e) {
+            System.err.println("Error loading simulation " + key + ": " + e.getMessage());
+            return null;
+        }
     }
 
     public void listSavedSimulations() {
-        if (savedSimulations.isEmpty()) {
+        flush();
+        if (index.isEmpty()) {
             System.out.println("No saved simulations found");
             return;
         }
         
         System.out.println("\nSaved Simulations:");
         int i = 1;
-        for (String name : savedSimulations.keySet()) {
-            System.out.printf("%d. %s%n", i++, name);
+        for (SimulationSummary summary : index.values()) {
+            System.out.printf("%d. %s (%s, %d years, final population %,d, growth %.2f%%/year)%n", i++,
+                    summary.getName(), summary.getSpecies(), summary.getSimulationYears(),
+                    summary.getFinalPopulation(), summary.getAverageGrowthRate());
         }
     }
 
-    private void loadSavedSimulations() {
-        File dir = new File(SAVE_DIRECTORY);
-        File[] files = dir.listFiles((d, name) -> name.endsWith(".sim"));
-        
+    // Archive mode: many replicate runs appended to one columnar file instead of one .sim per run
+    public ReplicateArchive createArchive(String name, SpeciesProfile profile, int initialPopulation,
+                                          int simulationYears, SimulationMode mode, long batchSeed)
+            throws IOException {
+        return ReplicateArchive.create(archivePath(name), profile, initialPopulation, simulationYears, mode,
+                batchSeed, ARCHIVE_BLOCK_CAPACITY);
+    }
+
+    public ReplicateArchive openArchive(String name) throws IOException {
+        return ReplicateArchive.open(archivePath(name));
+    }
+
+    /** Names of the replicate archives, as their files are named. */
+    public String[] listArchives() {
+        File[] files = directory.listFiles((d, name) -> name.endsWith(ARCHIVE_EXTENSION));
+        if (files == null) {
+            return new String[0];
+        }
+        String[] names = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            String file = files[i].getName();
+            names[i] = file.substring(0, file.length() - ARCHIVE_EXTENSION.length());
+        }
+        Arrays.sort(names);
+        return names;
+    }
+
+    private Path archivePath(String name) {
+        return new File(directory, fileStem(name) + ARCHIVE_EXTENSION).toPath();
+    }
+
+    // Checkpoints: snapshots of runs in flight, kept per year so a run can resume or fork from any of them
+
+    /** Saves a checkpoint of {@code simulation} under {@code name} every {@code everyYears} years while it runs. */
+    public void enableCheckpoints(PopulationSimulation simulation, String name, int everyYears) {
+        simulation.setCheckpointing(everyYears, checkpoint -> saveCheckpoint(checkpoint, name));
+    }
+
+    public boolean saveCheckpoint(SimulationCheckpoint checkpoint, String name) {
+        Path target = checkpointFile(name, checkpoint.getYear());
+        try {
+            Files.createDirectories(target.getParent());
+            boolean timed = SimulationMetrics.isEnabled();
+            long start = timed ? System.nanoTime() : 0;
+            writeDurably(target, checkpoint::write);
+            SimulationMetrics.lap(timed, SimulationMetrics.Phase.SAVE, start);
+            return true;
+        } catch (IOException e) {
+            System.err.println("Error saving checkpoint for year " + checkpoint.getYear() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** Years that have a checkpoint under this name, oldest first. */
+    public int[] listCheckpointYears(String name) {
+        File[] files = checkpointDirectory(name).toFile().listFiles((d, file) -> file.endsWith(CHECKPOINT_EXTENSION));
+        if (files == null) {
+            return new int[0];
+        }
+        int[] years = new int[files.length];
+        int count = 0;
+        for (File file : files) {
+            String stem = file.getName().substring(0, file.getName().length() - CHECKPOINT_EXTENSION.length());
+            try {
+                years[count] = Integer.parseInt(stem);
+                count++;
+            } catch (NumberFormatException ignored) {
+                // not written by saveCheckpoint
+            }
+        }
+        years = Arrays.copyOf(years, count);
+        Arrays.sort(years);
+        return years;
+    }
+
+    /** Names of the runs that have checkpoints. */
+    public String[] listCheckpointedRuns() {
+        File[] dirs = new File(directory, CHECKPOINT_DIRECTORY).listFiles(File::isDirectory);
+        if (dirs == null) {
+            return new String[0];
+        }
+        String[] names = new String[dirs.length];
+        for (int i = 0; i < dirs.length; i++) {
+            names[i] = dirs[i].getName();
+        }
+        Arrays.sort(names);
+        return names;
+    }
+
+    public SimulationCheckpoint loadCheckpoint(String name, int year) {
+        Path file = checkpointFile(name, year);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            boolean timed = SimulationMetrics.isEnabled();
+            long start = timed ? System.nanoTime() : 0;
+            SimulationCheckpoint checkpoint = SimulationCheckpoint.read(file);
+            SimulationMetrics.lap(timed, SimulationMetrics.Phase.LOAD, start);
+            return checkpoint;
+        } catch (IOException e) {
+            System.err.println("Error loading checkpoint " + file.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Deletes every checkpoint saved under this name. */
+    public boolean deleteCheckpoints(String name) {
+        File[] files = checkpointDirectory(name).toFile().listFiles();
+        if (files == null) {
+            return false;
+        }
+        boolean deleted = true;
+        for (File file : files) {
+            deleted &= file.delete();
+        }
+        return checkpointDirectory(name).toFile().delete() && deleted;
+    }
+
+    private Path checkpointDirectory(String name) {
+        return directory.toPath().resolve(CHECKPOINT_DIRECTORY).resolve(fileStem(name));
+    }
+
+    private Path checkpointFile(String name, int year) {
+        return checkpointDirectory(name).resolve(year + CHECKPOINT_EXTENSION);
+    }
+
+    // Reads the index, then only opens .sim files that are new, changed or still in the old format
+    private void loadIndex() {
+        boolean changed = readIndex();
+
+        File[] files = directory.listFiles((d, name) -> name.endsWith(".sim"));
+        Map<String, File> onDisk = new TreeMap<>();
         if (files != null) {
             for (File file : files) {
-                try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                    PopulationSimulation sim = (PopulationSimulation) ois.readObject();
-                    String name = file.getName().replace(".sim", "");
-                    savedSimulations.put(name, sim);
-                } catch (IOException | ClassNotFoundException e) {
-                    System.err.println("Error loading simulation from " + file.getName() + ": " + e.getMessage());
+                onDisk.put(file.getName().substring(0, file.getName().length() - ".sim".length()), file);
+            }
+        }
+
+        changed |= index.keySet().retainAll(onDisk.keySet());
+        for (Map.Entry<String, File> entry : onDisk.entrySet()) {
+            String name = entry.getKey();
+            File file = entry.getValue();
+            SimulationSummary summary = index.get(name);
+            if (summary != null && summary.getFileSize() == file.length()
+                    && summary.getLastModified() == file.lastModified()) {
+                continue;
+            }
+            try {
+                boolean legacy = SimulationFile.isLegacy(file.toPath());
+                PopulationSimulation sim = SimulationFile.read(file.toPath());
+                if (legacy) {
+                    migrate(sim, file);
                 }
+                index.put(name, summarize(name, sim, file));
+                changed = true;
+            } catch (IOException e) {
+                System.err.println("Error loading simulation from " + file.getName() + ": " + e.getMessage());
+            }
+        }
+
+        if (changed) {
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                System.err.println("Error writing simulation index: " + e.getMessage());
             }
         }
     }
 
+    // Returns true when the index is missing or unreadable and has to be rebuilt
+    private boolean readIndex() {
+        File file = new File(directory, INDEX_FILE);
+        if (!file.exists()) {
+            return true;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != INDEX_VERSION) {
+                return true;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                SimulationSummary summary = new SimulationSummary(in.readUTF(), in.readUTF(), in.readInt(),
+                        in.readLong(), in.readDouble(), in.readLong(), in.readLong());
+                index.put(summary.getName(), summary);
+            }
+            return false;
+        } catch (IOException e) {
+            index.clear();
+            return true;
+        }
+    }
+
+    // Called by the writer after each batch and by deletes on the caller's thread
+    private synchronized void writeIndex() throws IOException {
+        Path target = new File(directory, INDEX_FILE).toPath();
+        Path temp = target.resolveSibling(INDEX_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp.toFile())))) {
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(index.size());
+            for (SimulationSummary summary : index.values()) {
+                out.writeUTF(summary.getName());
+                out.writeUTF(summary.getSpecies());
+                out.writeInt(summary.getSimulationYears());
+                out.writeLong(summary.getFinalPopulation());
+                out.writeDouble(summary.getAverageGrowthRate());
+                out.writeLong(summary.getFileSize());
+                out.writeLong(summary.getLastModified());
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static SimulationSummary summarize(String name, PopulationSimulation sim, File file) {
+        return new SimulationSummary(name, sim.getSpeciesProfile().getName(), sim.getSimulationYears(),
+                sim.getFinalPopulation(), sim.getAverageGrowthRate(), file.length(), file.lastModified());
+    }
+
+    // Rewrites a Java-serialized save in the binary format; the old file is only replaced once the new one is complete
+    private void migrate(PopulationSimulation sim, File file) {
+        try {
+            writeDurably(file.toPath(), path -> SimulationFile.write(sim, path));
+            System.out.println("Migrated " + file.getName() + " to the binary simulation format");
+        } catch (IOException e) {
+            System.err.println("Error migrating " + file.getName() + ": " + e.getMessage());
+        }
+    }
+
+    private interface PathWriter {
+        void write(Path path) throws IOException;
+    }
+
+    // Temp file, fsync, atomic rename: a crash leaves either the old file or the complete new one
+    private static void writeDurably(Path target, PathWriter content) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            content.write(temp);
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // temp files are never read back, so a leftover one is harmless
+            }
+            throw e;
+        }
+    }
+
+    static String fileStem(String name) {
+        return name.replaceAll("[^a-zA-Z0-9]", "_");
+    }
+
+    private File simulationFile(String key) {
+        return new File(directory, key + ".sim");
+    }
+
     public int getSavedCount() {
-        return savedSimulations.size();
+        flush();
+        return index.size();
     }
 
     public boolean deleteSimulation(String name) {
-        File file = new File(SAVE_DIRECTORY + File.separator + name + ".sim");
+        // A queued save would otherwise bring the file back after the delete
+        flush();
+        String key = fileStem(name);
+        File file = simulationFile(key);
         if (file.exists()) {
-            savedSimulations.remove(name);
-            return file.delete();
+            index.remove(key);
+            recentSimulations.remove(key);
+            boolean deleted = file.delete();
+            try {
+                writeIndex();
+            } catch (IOException e) {
+                System.err.println("Error writing simulation index: " + e.getMessage());
+            }
+            return deleted;
         }
         return false;
     }
-}
\ No newline at end of file
+}
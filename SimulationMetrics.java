@@ -0,0 +1,164 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide timing registry for simulation phases and persistence.
+ *
+ * Disabled by default. Engines and runs read {@link #isEnabled()} once when
+ * they start and skip every clock read when it is false, so a disabled
+ * registry costs one field read per run. When enabled, each phase accumulates call
+ * count, total and maximum nanoseconds; runs also record allocated bytes and
+ * the per-year population and step time of the most recent run.
+ */
+public class SimulationMetrics {
+    public enum Phase {
+        AGING("Aging"),
+        BREEDING("Breeding"),
+        MORTALITY("Mortality"),
+        OFFSPRING("Offspring insertion"),
+        STEP("Whole year"),
+        SAVE("Save"),
+        LOAD("Load");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() { return label; }
+    }
+
+    private static volatile boolean enabled;
+
+    private static final Map<Phase, LongAdder> calls = new EnumMap<>(Phase.class);
+    private static final Map<Phase, LongAdder> nanos = new EnumMap<>(Phase.class);
+    private static final Map<Phase, LongAccumulator> maxNanos = new EnumMap<>(Phase.class);
+    private static final LongAdder runs = new LongAdder();
+    private static final LongAdder allocatedBytes = new LongAdder();
+    // Per-year trace of the most recently finished run, replaced as a whole
+    private static volatile long[][] lastRunTrace = new long[2][0];
+
+    static {
+        for (Phase phase : Phase.values()) {
+            calls.put(phase, new LongAdder());
+            nanos.put(phase, new LongAdder());
+            maxNanos.put(phase, new LongAccumulator(Math::max, 0));
+        }
+    }
+
+    private SimulationMetrics() {
+    }
+
+    public static boolean isEnabled() { return enabled; }
+
+    public static void setEnabled(boolean enabled) {
+        SimulationMetrics.enabled = enabled;
+    }
+
+    public static void record(Phase phase, long elapsedNanos) {
+        calls.get(phase).increment();
+        nanos.get(phase).add(elapsedNanos);
+        maxNanos.get(phase).accumulate(elapsedNanos);
+    }
+
+    /**
+     * Records the time since {@code since} against a phase and returns the
+     * current time, so consecutive phases can be chained. Does nothing and
+     * returns 0 when {@code timed} is false.
+     */
+    static long lap(boolean timed, Phase phase, long since) {
+        if (!timed) return 0;
+        long now = System.nanoTime();
+        record(phase, now - since);
+        return now;
+    }
+
+    static void recordRun(long allocated, long[] population, long[] stepNanos) {
+        runs.increment();
+        if (allocated > 0) {
+            allocatedBytes.add(allocated);
+        }
+        lastRunTrace = new long[][] {population, stepNanos};
+    }
+
+    // Bytes allocated so far by the calling thread, or -1 where the JVM cannot tell
+    static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean hotspot
+                && hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled()) {
+            return hotspot.getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    public static void reset() {
+        for (Phase phase : Phase.values()) {
+            calls.get(phase).reset();
+            nanos.get(phase).reset();
+            maxNanos.get(phase).reset();
+        }
+        runs.reset();
+        allocatedBytes.reset();
+        lastRunTrace = new long[2][0];
+    }
+
+    public static long getCalls(Phase phase) { return calls.get(phase).sum(); }
+    public static long getTotalNanos(Phase phase) { return nanos.get(phase).sum(); }
+    public static long getMaxNanos(Phase phase) { return maxNanos.get(phase).get(); }
+    public static long getRuns() { return runs.sum(); }
+    public static long getAllocatedBytes() { return allocatedBytes.sum(); }
+
+    public static void printSummary() {
+        System.out.printf("%nMetrics are %s; %,d runs recorded, %,d bytes allocated by runs%n",
+                enabled ? "enabled" : "disabled", getRuns(), getAllocatedBytes());
+        System.out.printf("%-20s %12s %14s %12s %12s%n", "Phase", "Calls", "Total ms", "Mean us", "Max us");
+        for (Phase phase : Phase.values()) {
+            long count = getCalls(phase);
+            if (count == 0) continue;
+            long total = getTotalNanos(phase);
+            System.out.printf("%-20s %,12d %,14.2f %,12.2f %,12.2f%n", phase.getLabel(), count, total / 1e6,
+                    total / 1e3 / count, getMaxNanos(phase) / 1e3);
+        }
+        long[] population = lastRunTrace[0];
+        if (population.length > 0) {
+            System.out.printf("Last run: %d years, final population %,d%n", population.length - 1,
+                    population[population.length - 1]);
+        }
+    }
+
+    /** Writes one row per phase. */
+    public static void exportSummaryCsv(Path path) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.println("phase,calls,total_ns,mean_ns,max_ns");
+            for (Phase phase : Phase.values()) {
+                long count = getCalls(phase);
+                long total = getTotalNanos(phase);
+                writer.printf(Locale.ROOT, "%s,%d,%d,%.1f,%d%n", phase.name().toLowerCase(Locale.ROOT), count,
+                        total, count == 0 ? 0.0 : (double) total / count, getMaxNanos(phase));
+            }
+            writer.printf(Locale.ROOT, "runs,%d,,,%n", getRuns());
+            writer.printf(Locale.ROOT, "allocated_bytes,%d,,,%n", getAllocatedBytes());
+        }
+    }
+
+    /** Writes the population and step time of every year of the most recent run. */
+    public static void exportLastRunCsv(Path path) throws IOException {
+        long[][] trace = lastRunTrace;
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path))) {
+            writer.println("year,population,step_ns");
+            for (int year = 0; year < trace[0].length; year++) {
+                writer.printf(Locale.ROOT, "%d,%d,%d%n", year, trace[0][year], trace[1][year]);
+            }
+        }
+    }
+}
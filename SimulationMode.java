@@ -0,0 +1,14 @@
+public enum SimulationMode {
+    INDIVIDUAL("Individual (one age per animal)"),
+    COHORT("Cohort (animal counts per age in months)"),
+    DETERMINISTIC("Deterministic (expected values via Leslie matrix projection)"),
+    MONTHLY("Monthly events (litters per year as rates, tau-leaping)");
+
+    private final String description;
+
+    SimulationMode(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() { return description; }
+}
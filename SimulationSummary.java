@@ -0,0 +1,32 @@
+/**
+ * What the saved-simulation index knows about one .sim file, enough to list
+ * it without reading its history.
+ */
+public class SimulationSummary {
+    private final String name;
+    private final String species;
+    private final int simulationYears;
+    private final long finalPopulation;
+    private final double averageGrowthRate;
+    private final long fileSize;
+    private final long lastModified;
+
+    public SimulationSummary(String name, String species, int simulationYears, long finalPopulation,
+                             double averageGrowthRate, long fileSize, long lastModified) {
+        this.name = name;
+        this.species = species;
+        this.simulationYears = simulationYears;
+        this.finalPopulation = finalPopulation;
+        this.averageGrowthRate = averageGrowthRate;
+        this.fileSize = fileSize;
+        this.lastModified = lastModified;
+    }
+
+    public String getName() { return name; }
+    public String getSpecies() { return species; }
+    public int getSimulationYears() { return simulationYears; }
+    public long getFinalPopulation() { return finalPopulation; }
+    public double getAverageGrowthRate() { return averageGrowthRate; }
+    public long getFileSize() { return fileSize; }
+    public long getLastModified() { return lastModified; }
+}
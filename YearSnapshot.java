@@ -0,0 +1,27 @@
+public class YearSnapshot {
+    private final int year;
+    private final long population;
+    private final long births;
+    private final long deaths;
+    private final long breeders;
+
+    public YearSnapshot(int year, long population, long births, long deaths, long breeders) {
+        this.year = year;
+        this.population = population;
+        this.births = births;
+        this.deaths = deaths;
+        this.breeders = breeders;
+    }
+
+    public int getYear() { return year; }
+    public long getPopulation() { return population; }
+    public long getBirths() { return births; }
+    public long getDeaths() { return deaths; }
+    public long getBreeders() { return breeders; }
+
+    @Override
+    public String toString() {
+        return String.format("Year %d: population %,d (births %,d, deaths %,d, breeding females %,d)",
+                year, population, births, deaths, breeders);
+    }
+}
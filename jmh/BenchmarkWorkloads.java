@@ -0,0 +1,172 @@
+import bench.Kernels;
+import bench.Workload;
+import bench.Workloads;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/** The simulator side of {@link Workloads}; see there for why the benchmarks need it. */
+public class BenchmarkWorkloads implements Workloads {
+    // Growth rate close to 1, so population sizes stay near their starting value for any year count
+    private static final SpeciesProfile STEADY_PROFILE = new SpeciesProfile("Benchmark", 4, 2, 0.445, 6);
+    private static final long SEED = 42;
+    private static final String SAVE_NAME = "Benchmark";
+
+    @Override
+    public Workload simulation(String mode, int initialPopulation, int years) {
+        SimulationMode simulationMode = SimulationMode.valueOf(mode);
+        return () -> {
+            PopulationSimulation simulation = new PopulationSimulation(STEADY_PROFILE, initialPopulation, years,
+                    simulationMode, SEED);
+            simulation.run();
+            return simulation.getFinalPopulation();
+        };
+    }
+
+    @Override
+    public Workload save(Path directory, int historyLength) {
+        PopulationSimulation simulation = syntheticRun(historyLength);
+        PrintStream console = silenceConsole(); // saveSimulation reports every save
+        SimulationManager manager = new SimulationManager(directory);
+        return new Workload() {
+            public long run() {
+                manager.saveSimulation(simulation, SAVE_NAME);
+                manager.flush();
+                return manager.getSavedCount();
+            }
+
+            public void close() {
+                manager.close();
+                System.setOut(console);
+            }
+        };
+    }
+
+    @Override
+    public Workload load(Path directory, int historyLength) {
+        try (SimulationManager writer = new SimulationManager(directory)) {
+            PrintStream console = silenceConsole();
+            writer.saveSimulation(syntheticRun(historyLength), SAVE_NAME);
+            System.setOut(console);
+        }
+        // No in-memory copies, so every load reads the file
+        SimulationManager manager = new SimulationManager(directory, 0);
+        return new Workload() {
+            public long run() {
+                return manager.loadSimulation(SAVE_NAME).getFinalPopulation();
+            }
+
+            public void close() {
+                manager.close();
+            }
+        };
+    }
+
+    @Override
+    public Workload htmlChart(int historyLength) {
+        List<Long> history = syntheticRun(historyLength).getPopulationHistory();
+        return () -> HTMLChartGenerator.buildHTML(history, "Benchmark").length();
+    }
+
+    @Override
+    public Workload consoleChart(int historyLength) {
+        List<Long> history = syntheticRun(historyLength).getPopulationHistory();
+        PrintStream console = silenceConsole();
+        return new Workload() {
+            public long run() {
+                ConsoleChart.display(history, "Benchmark");
+                return history.size();
+            }
+
+            public void close() {
+                System.setOut(console);
+            }
+        };
+    }
+
+    @Override
+    public Workload community(int speciesCount, int years) {
+        return () -> {
+            CommunitySimulation community = new CommunitySimulation(years, SEED);
+            for (int i = 0; i < speciesCount; i++) {
+                community.addSpecies(new SpeciesProfile("Species " + i, 4, 2, 0.6, 6), 10_000);
+            }
+            for (int i = 0; i < speciesCount; i++) {
+                if (i > 0) {
+                    community.addInteraction(i - 1, InteractionTerm.predation(i, 1e-5));
+                    community.addInteraction(i, InteractionTerm.foodLimitation(i - 1, 5_000));
+                }
+                for (int j = 0; j < speciesCount; j++) {
+                    if (j != i) community.addInteraction(i, InteractionTerm.competition(j, 0.01, 1e6));
+                }
+            }
+            community.run();
+            return community.getFinalPopulation(speciesCount - 1);
+        };
+    }
+
+    @Override
+    public Kernels kernels(boolean vectorized) {
+        if (!vectorized) {
+            return new Kernels() {
+                public void ageAll(int[] ages, int size, int months) {
+                    PopulationKernels.ageAllScalar(ages, size, months);
+                }
+
+                public int countAtLeast(int[] ages, int size, int threshold) {
+                    return PopulationKernels.countAtLeastScalar(ages, size, threshold);
+                }
+
+                public int compactSurvivors(int[] ages, int size, RandomGenerator random, int reproductionAge,
+                                            int elderAge, double juvenileSurvival, double adultSurvival,
+                                            double elderSurvival) {
+                    return PopulationKernels.compactSurvivorsScalar(ages, size, random, reproductionAge, elderAge,
+                            juvenileSurvival, adultSurvival, elderSurvival);
+                }
+            };
+        }
+        PopulationKernels.Simd simd = PopulationKernels.SIMD;
+        if (simd == null) {
+            throw new IllegalStateException("Vector kernels need jdk.incubator.vector and the simd/ classes");
+        }
+        return new Kernels() {
+            public void ageAll(int[] ages, int size, int months) {
+                simd.ageAll(ages, size, months);
+            }
+
+            public int countAtLeast(int[] ages, int size, int threshold) {
+                return simd.countAtLeast(ages, size, threshold);
+            }
+
+            public int compactSurvivors(int[] ages, int size, RandomGenerator random, int reproductionAge,
+                                        int elderAge, double juvenileSurvival, double adultSurvival,
+                                        double elderSurvival) {
+                return simd.compactSurvivors(ages, size, random, reproductionAge, elderAge,
+                        juvenileSurvival, adultSurvival, elderSurvival);
+            }
+        };
+    }
+
+    // A finished run of the given length whose history is a random walk around one million
+    private static PopulationSimulation syntheticRun(int length) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Long> history = new ArrayList<>(length);
+        long population = 1_000_000;
+        for (int i = 0; i < length; i++) {
+            population = Math.max(0, population + random.nextLong(-50_000, 50_001));
+            history.add(population);
+        }
+        return PopulationSimulation.restore(STEADY_PROFILE, 1_000_000, length - 1, SimulationMode.COHORT,
+                SEED, history);
+    }
+
+    private static PrintStream silenceConsole() {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        return console;
+    }
+}
@@ -0,0 +1,53 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** HTML and console charts across history lengths. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ChartBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int historyLength;
+
+    private Workload html;
+    private Workload console;
+
+    @Setup
+    public void setUp() {
+        Workloads workloads = Workloads.get();
+        html = workloads.htmlChart(historyLength);
+        console = workloads.consoleChart(historyLength);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        console.close();
+    }
+
+    @Benchmark
+    public long html() throws Exception {
+        return html.run();
+    }
+
+    @Benchmark
+    public long console() throws Exception {
+        return console.run();
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Vector against scalar PopulationKernels on populations of 10^5 to 10^8
+ * animals. Compare the "kernels" parameter's two rows for each size and stage.
+ * 10^8 animals need about 1 GB for the two age buffers, hence the fork's heap.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Xmx2g"})
+public class KernelBenchmark {
+    private static final int REPRODUCTION_AGE = 6;
+    private static final int ELDER_AGE = REPRODUCTION_AGE * 3;
+    private static final int MONTHS_PER_YEAR = 12;
+
+    @Param({"100000", "1000000", "10000000", "100000000"})
+    public int size;
+
+    @Param({"scalar", "vector"})
+    public String kernels;
+
+    private Kernels implementation;
+    private int[] template;
+    private int[] ages;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        implementation = Workloads.get().kernels(kernels.equals("vector"));
+        template = new int[size];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < size; i++) {
+            template[i] = random.nextInt(REPRODUCTION_AGE * 5);
+        }
+        ages = template.clone();
+    }
+
+    // Survival shrinks the buffer it compacts, so every call starts from the same ages
+    @Setup(Level.Invocation)
+    public void resetAges() {
+        System.arraycopy(template, 0, ages, 0, size);
+    }
+
+    @Benchmark
+    public void aging(Blackhole blackhole) {
+        implementation.ageAll(ages, size, MONTHS_PER_YEAR);
+        blackhole.consume(ages);
+    }
+
+    @Benchmark
+    public void breederCount(Blackhole blackhole) {
+        blackhole.consume(implementation.countAtLeast(template, size, REPRODUCTION_AGE));
+    }
+
+    @Benchmark
+    public void survival(Blackhole blackhole) {
+        blackhole.consume(implementation.compactSurvivors(ages, size, new SplittableRandom(7), REPRODUCTION_AGE,
+                ELDER_AGE, 0.35, 0.5, 0.3));
+    }
+}
@@ -0,0 +1,13 @@
+package bench;
+
+import java.util.random.RandomGenerator;
+
+/** The per-year PopulationKernels, bound to either their vector or their scalar implementation. */
+public interface Kernels {
+    void ageAll(int[] ages, int size, int months);
+
+    int countAtLeast(int[] ages, int size, int threshold);
+
+    int compactSurvivors(int[] ages, int size, RandomGenerator random, int reproductionAge, int elderAge,
+                         double juvenileSurvival, double adultSurvival, double elderSurvival);
+}
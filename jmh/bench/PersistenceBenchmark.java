@@ -0,0 +1,76 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SimulationManager save and load across history lengths. A save is the
+ * whole write-behind path: queueing, the writer's temp file, fsync, atomic
+ * rename and index rewrite, measured up to flush() returning.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PersistenceBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int historyLength;
+
+    private Path saveDirectory;
+    private Path loadDirectory;
+    private Workload save;
+    private Workload load;
+
+    @Setup
+    public void setUp() throws Exception {
+        Workloads workloads = Workloads.get();
+        saveDirectory = Files.createTempDirectory("benchmark-save");
+        loadDirectory = Files.createTempDirectory("benchmark-load");
+        save = workloads.save(saveDirectory, historyLength);
+        load = workloads.load(loadDirectory, historyLength);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        save.close();
+        load.close();
+        delete(saveDirectory);
+        delete(loadDirectory);
+    }
+
+    @Benchmark
+    public long save() throws Exception {
+        return save.run();
+    }
+
+    @Benchmark
+    public long load() throws Exception {
+        return load.run();
+    }
+
+    private static void delete(Path directory) throws Exception {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
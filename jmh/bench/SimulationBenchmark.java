@@ -0,0 +1,45 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** PopulationSimulation.run() for every engine across population sizes and year counts. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SimulationBenchmark {
+
+    @Param({"INDIVIDUAL", "COHORT", "MONTHLY", "DETERMINISTIC"})
+    public String mode;
+
+    @Param({"1000", "100000"})
+    public int initialPopulation;
+
+    @Param({"10", "100"})
+    public int years;
+
+    private Workload simulation;
+
+    @Setup
+    public void setUp() {
+        simulation = Workloads.get().simulation(mode, initialPopulation, years);
+    }
+
+    @Benchmark
+    public long run() throws Exception {
+        return simulation.run();
+    }
+}
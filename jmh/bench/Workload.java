@@ -0,0 +1,11 @@
+package bench;
+
+/** One measured operation, built by {@link Workloads} before its benchmark runs. */
+public interface Workload extends AutoCloseable {
+    /** Runs the operation once and returns a value derived from its work. */
+    long run() throws Exception;
+
+    @Override
+    default void close() throws Exception {
+    }
+}
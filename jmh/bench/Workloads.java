@@ -0,0 +1,41 @@
+package bench;
+
+import java.nio.file.Path;
+
+/**
+ * Entry points into the simulator. JMH only generates code for benchmarks in
+ * a named package, and classes there cannot import the simulator's classes
+ * from the unnamed package, so the benchmarks reach them through this
+ * interface, implemented by BenchmarkWorkloads in the unnamed package.
+ */
+public interface Workloads {
+
+    static Workloads get() {
+        try {
+            return (Workloads) Class.forName("BenchmarkWorkloads").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchmarkWorkloads is missing from the benchmark classpath", e);
+        }
+    }
+
+    /** PopulationSimulation.run() for a fresh seeded simulation. */
+    Workload simulation(String mode, int initialPopulation, int years);
+
+    /** SimulationManager.saveSimulation() of one run followed by flush(), in the given directory. */
+    Workload save(Path directory, int historyLength) throws Exception;
+
+    /** SimulationManager.loadSimulation() of a run saved in the given directory, read from disk every time. */
+    Workload load(Path directory, int historyLength) throws Exception;
+
+    /** HTMLChartGenerator.buildHTML() */
+    Workload htmlChart(int historyLength);
+
+    /** ConsoleChart.display(), with System.out discarded until the workload is closed. */
+    Workload consoleChart(int historyLength);
+
+    /** CommunitySimulation.run() over a food chain in which every species also competes with every other. */
+    Workload community(int species, int years);
+
+    /** PopulationKernels' SIMD loops, which need jdk.incubator.vector, or its scalar fallbacks. */
+    Kernels kernels(boolean vectorized);
+}
@@ -0,0 +1,90 @@
+import java.util.random.RandomGenerator;
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD versions of the PopulationKernels loops on the incubating Vector API.
+ * This source set is compiled on its own with jdk.incubator.vector added;
+ * PopulationKernels loads the class by name once it has checked that the
+ * module is present, so the rest of the project builds without it.
+ *
+ * The survival pass cannot draw its random numbers in vector lanes without
+ * changing which animal gets which draw, so it draws a block of uniforms
+ * first, in buffer order, and vectorizes the rate lookup, the comparison and
+ * the compaction over that block.
+ */
+final class VectorKernels implements PopulationKernels.Simd {
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // Survival compares doubles, so ages are loaded at half width to get one age lane per double lane
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> HALF_INTS = VectorSpecies.of(int.class,
+            VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    // Uniforms drawn ahead of each vector pass; one buffer per thread, reused for every call
+    private static final int BLOCK = 1024;
+    private static final ThreadLocal<double[]> UNIFORMS = ThreadLocal.withInitial(() -> new double[BLOCK]);
+
+    VectorKernels() {
+    }
+
+    @Override
+    public void ageAll(int[] ages, int size, int months) {
+        int i = 0;
+        for (int upper = INTS.loopBound(size); i < upper; i += INTS.length()) {
+            IntVector.fromArray(INTS, ages, i).add(months).intoArray(ages, i);
+        }
+        for (; i < size; i++) {
+            ages[i] += months;
+        }
+    }
+
+    @Override
+    public int countAtLeast(int[] ages, int size, int threshold) {
+        IntVector counts = IntVector.zero(INTS);
+        int i = 0;
+        for (int upper = INTS.loopBound(size); i < upper; i += INTS.length()) {
+            VectorMask<Integer> adult = IntVector.fromArray(INTS, ages, i).compare(VectorOperators.GE, threshold);
+            counts = counts.add(1, adult);
+        }
+        int count = counts.reduceLanes(VectorOperators.ADD);
+        for (; i < size; i++) {
+            count += (threshold - 1 - ages[i]) >>> 31;
+        }
+        return count;
+    }
+
+    @Override
+    public int compactSurvivors(int[] ages, int size, RandomGenerator random, int reproductionAge, int elderAge,
+                                double juvenileSurvival, double adultSurvival, double elderSurvival) {
+        double[] uniforms = UNIFORMS.get();
+        DoubleVector adult = DoubleVector.broadcast(DOUBLES, adultSurvival);
+        int survivors = 0;
+        for (int start = 0; start < size; start += BLOCK) {
+            int count = Math.min(BLOCK, size - start);
+            for (int j = 0; j < count; j++) {
+                uniforms[j] = random.nextDouble();
+            }
+            int j = 0;
+            for (int upper = DOUBLES.loopBound(count); j < upper; j += DOUBLES.length()) {
+                IntVector age = IntVector.fromArray(HALF_INTS, ages, start + j);
+                VectorMask<Double> juvenile = age.compare(VectorOperators.LT, reproductionAge).cast(DOUBLES);
+                VectorMask<Double> elder = age.compare(VectorOperators.GT, elderAge).cast(DOUBLES);
+                DoubleVector rate = adult.blend(juvenileSurvival, juvenile).blend(elderSurvival, elder);
+                VectorMask<Double> survives = DoubleVector.fromArray(DOUBLES, uniforms, j).lt(rate);
+                // Writes a full vector at the write index; lanes past the survivors land on animals already read
+                age.compress(survives.cast(HALF_INTS)).intoArray(ages, survivors);
+                survivors += survives.trueCount();
+            }
+            for (; j < count; j++) {
+                int age = ages[start + j];
+                ages[survivors] = age;
+                survivors += uniforms[j] < PopulationKernels.survivalRate(age, reproductionAge, elderAge,
+                        juvenileSurvival, adultSurvival, elderSurvival) ? 1 : 0;
+            }
+        }
+        return survivors;
+    }
+}
@@ -0,0 +1,62 @@
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Guards the allocation-free steady state of IndividualEngine: once the age
+ * buffer has grown to the population's size, a simulated year allocates
+ * (close to) nothing, whatever the headcount. Boxed ages would allocate tens
+ * of bytes per animal per year.
+ */
+class IndividualEngineAllocationTest {
+    private static final SpeciesProfile PROFILE = new SpeciesProfile("Vole", 4, 3, 0.6, 6);
+    // Long enough for the JIT to compile the kernels too; interpreted Vector API code allocates its vectors
+    private static final int WARMUP_YEARS = 1000;
+    private static final int MEASURED_YEARS = 50;
+    // Per year, far below the ~16 bytes per animal that one Integer each would cost
+    private static final long MAX_BYTES_PER_YEAR = 1024;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    @BeforeAll
+    static void allocationCounter() {
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @Test
+    void steadyStateYearsDoNotAllocate() {
+        for (long capacity : new long[] {10_000, 100_000}) {
+            long perYear = bytesPerYear(capacity);
+            assertTrue(perYear <= MAX_BYTES_PER_YEAR,
+                    "Population near " + capacity + " allocated " + perYear + " bytes per year");
+        }
+    }
+
+    @Test
+    void allocationDoesNotGrowWithPopulation() {
+        long small = bytesPerYear(10_000);
+        long large = bytesPerYear(200_000);
+        assertTrue(large <= small + MAX_BYTES_PER_YEAR,
+                "Allocation per year grew from " + small + " to " + large + " bytes with 20x the animals");
+    }
+
+    // Density dependence holds the population near the capacity, so the buffer stops growing during warmup
+    private static long bytesPerYear(long capacity) {
+        IndividualEngine engine = new IndividualEngine(PROFILE, new SplittableRandom(7),
+                DensityDependence.of(DensityDependence.Model.LOGISTIC, capacity));
+        engine.initialize(capacity / 2);
+        for (int year = 0; year < WARMUP_YEARS; year++) {
+            engine.step();
+        }
+        long thread = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int year = 0; year < MEASURED_YEARS; year++) {
+            engine.step();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / MEASURED_YEARS;
+    }
+}
@@ -0,0 +1,81 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Patch totals must stay within the population limit however many patches
+ * saturate, migration must only move animals, never create or lose them, and
+ * a restored engine must carry on exactly as the one it was saved from.
+ */
+class MetapopulationEngineTest {
+    private static final SpeciesProfile MOUSE = new SpeciesProfile("Mouse", 8, 6, 0.8, 2);
+
+    @Test
+    void totalStaysWithinTheLimit() {
+        try (MetapopulationEngine engine = new MetapopulationEngine(MOUSE, MigrationMatrix.grid(4, 4, 0.2), 1, 2)) {
+            engine.initialize(1_600);
+            for (int year = 1; year <= 60; year++) {
+                long total = engine.step();
+                assertTrue(total >= 0 && total <= CohortEngine.POPULATION_LIMIT, "Year " + year + ": " + total);
+                assertEquals(sumOfPatches(engine), total, "Year " + year);
+            }
+            assertTrue(engine.isLimitReached());
+        }
+    }
+
+    @Test
+    void migrationConservesAnimals() {
+        SpeciesProfile vole = new SpeciesProfile("Vole", 4, 3, 0.6, 6);
+        try (MetapopulationEngine engine = new MetapopulationEngine(vole, MigrationMatrix.grid(6, 6, 0.3), 7, 2)) {
+            engine.initialize(3_600);
+            long previous = engine.getPopulation();
+            long migrants = 0;
+            for (int year = 1; year <= 30; year++) {
+                long total = engine.step();
+                // Births and deaths happen inside patches; whatever else changed moved between them
+                assertEquals(previous + engine.getLastBirths() - engine.getLastDeaths(), total, "Year " + year);
+                assertEquals(sumOfPatches(engine), total, "Year " + year);
+                migrants += engine.getLastMigrants();
+                previous = total;
+            }
+            assertTrue(migrants > 0, "The grid should have moved animals");
+            assertTrue(!engine.isLimitReached());
+        }
+    }
+
+    @Test
+    void restoredEngineContinuesTheSameRun() throws IOException {
+        SpeciesProfile vole = new SpeciesProfile("Vole", 4, 3, 0.6, 6);
+        try (MetapopulationEngine original = new MetapopulationEngine(vole, MigrationMatrix.grid(5, 5, 0.3), 3, 2);
+             MetapopulationEngine restored = new MetapopulationEngine(vole, MigrationMatrix.grid(5, 5, 0.3), 99, 1)) {
+            original.initialize(2_500);
+            for (int year = 1; year <= 10; year++) {
+                original.step();
+            }
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            original.saveState(new DataOutputStream(bytes));
+            restored.restoreState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+            assertEquals(original.getPopulation(), restored.getPopulation());
+            for (int year = 11; year <= 30; year++) {
+                assertEquals(original.step(), restored.step(), "Year " + year);
+                assertEquals(original.getLastMigrants(), restored.getLastMigrants(), "Year " + year);
+            }
+        }
+    }
+
+    private static long sumOfPatches(MetapopulationEngine engine) {
+        long sum = 0;
+        for (int patch = 0; patch < engine.getPatchCount(); patch++) {
+            long population = engine.getPatchPopulation(patch);
+            assertTrue(population >= 0, "Patch " + patch + ": " + population);
+            sum += population;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The streamed statistics must agree with exact ones computed from every
+ * history, and the archive must hold the replicates in replicate order
+ * whatever the thread count.
+ */
+class MonteCarloRunnerTest {
+    private static final SpeciesProfile PROFILE = new SpeciesProfile("Vole", 4, 3, 0.6, 6);
+    private static final int YEARS = 30;
+    // More than one chunk, with a partial last one
+    private static final int REPLICATES = 2500;
+    private static final long SEED = 7;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void archiveOrderDoesNotDependOnThreads() throws IOException {
+        try (ReplicateArchive single = archive("single.bpsa");
+             ReplicateArchive parallel = archive("parallel.bpsa")) {
+            new MonteCarloRunner(1).run(PROFILE, 50, YEARS, SimulationMode.COHORT, REPLICATES, SEED, single);
+            new MonteCarloRunner(8).run(PROFILE, 50, YEARS, SimulationMode.COHORT, REPLICATES, SEED, parallel);
+            for (int run = 0; run < REPLICATES; run++) {
+                for (int year = 0; year <= YEARS; year++) {
+                    assertEquals(single.get(run, year), parallel.get(run, year), "run " + run + ", year " + year);
+                }
+            }
+        }
+    }
+
+    @Test
+    void streamedStatisticsMatchTheArchive() throws IOException {
+        try (ReplicateArchive archive = archive("stats.bpsa")) {
+            MonteCarloResult result = new MonteCarloRunner().run(PROFILE, 5_000, YEARS, SimulationMode.COHORT,
+                    REPLICATES, SEED, archive);
+            for (int year = 0; year <= YEARS; year++) {
+                double mean = archive.mean(year);
+                assertEquals(mean, result.getMean(year), 1e-9 * Math.max(1, mean));
+                assertEquals(archive.variance(year), result.getVariance(year),
+                        1e-9 * Math.max(1, archive.variance(year)));
+                assertClose(archive.percentile(year, 0.05), result.getPercentile5(year));
+                assertClose(archive.percentile(year, 0.50), result.getMedian(year));
+                assertClose(archive.percentile(year, 0.95), result.getPercentile95(year));
+            }
+        }
+    }
+
+    @Test
+    void smallPopulationsAreExact() {
+        PopulationHistogram histogram = new PopulationHistogram();
+        for (long value = 0; value < PopulationHistogram.EXACT_BELOW; value += 3) {
+            histogram.add(value);
+        }
+        // 342 values 0, 3, ..., 1023; rank 0.5 * 341 = 170.5 lies between 510 and 513
+        assertEquals(511.5, histogram.percentile(0.5));
+    }
+
+    private ReplicateArchive archive(String name) throws IOException {
+        return ReplicateArchive.create(directory.resolve(name), PROFILE, 50, YEARS, SimulationMode.COHORT,
+                SEED, 256);
+    }
+
+    // Within the histogram's bucket precision
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, Math.max(0.5, expected * 0.008));
+    }
+}
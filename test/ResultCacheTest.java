@@ -0,0 +1,41 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * A cached result must answer like the run it stands for, including the
+ * year an unchecked run hit the population ceiling.
+ */
+class ResultCacheTest {
+    private static final SpeciesProfile PROFILE = new SpeciesProfile("Rabbit", 6, 5, 0.8, 4);
+    private static final long SEED = 42;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void hitsKeepTheLimitReachedYear() {
+        PopulationSimulation run = request();
+        new ResultCache(directory, 4, 4).getOrRun(run);
+        assertTrue(run.isPopulationLimitReached(), "The profile should reach the ceiling within 50 years");
+
+        ResultCache cache = new ResultCache(directory, 4, 4);
+        PopulationSimulation fromDisk = cache.get(request());
+        assertNotNull(fromDisk);
+        assertEquals(run.getLimitReachedYear(), fromDisk.getLimitReachedYear());
+
+        ResultCache memoryOnly = new ResultCache(directory, 4, 0);
+        memoryOnly.put(run);
+        PopulationSimulation fromMemory = memoryOnly.get(request());
+        assertEquals(1, memoryOnly.getMemoryHits());
+        assertEquals(run.getLimitReachedYear(), fromMemory.getLimitReachedYear());
+    }
+
+    private static PopulationSimulation request() {
+        return new PopulationSimulation(PROFILE, 100, 50, SimulationMode.MONTHLY, SEED);
+    }
+}
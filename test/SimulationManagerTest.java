@@ -0,0 +1,38 @@
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * The write-behind saver must not leave callers waiting on a writer thread
+ * that no longer exists.
+ */
+class SimulationManagerTest {
+    private static final SpeciesProfile PROFILE = new SpeciesProfile("Vole", 4, 3, 0.6, 6);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void flushFailsOnceTheWriterHasDied() {
+        SimulationManager manager = new SimulationManager(directory);
+        manager.saveSimulation(new PopulationSimulation(PROFILE, 10, 5, SimulationMode.COHORT, 1) {
+            @Override
+            public List<Long> getPopulationHistory() {
+                throw new StackOverflowError("poisoned run");
+            }
+        }, "Poisoned");
+
+        IllegalStateException failure = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> assertThrows(IllegalStateException.class, manager::flush));
+        assertNotNull(failure.getCause());
+        assertThrows(IllegalStateException.class,
+                () -> manager.saveSimulation(new PopulationSimulation(PROFILE, 10, 5), "Next"));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), manager::close);
+    }
+}